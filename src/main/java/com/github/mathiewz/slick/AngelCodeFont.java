@@ -1,15 +1,16 @@
 package com.github.mathiewz.slick;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.StringTokenizer;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -29,8 +30,9 @@ import com.github.mathiewz.slick.util.ResourceLoader;
  * href="http://www.angelcode.com/products/bmfont/">http://www.angelcode.com/products/bmfont/</a>
  *
  * This implementation copes with both the font display and kerning information
- * allowing nicer looking paragraphs of text. Note that this utility only
- * supports the text BMFont format definition file.
+ * allowing nicer looking paragraphs of text. Both the text and binary BMFont
+ * format definition files are supported, the format being detected from the
+ * start of the file.
  *
  * @author kevin
  * @author Nathan Sweet
@@ -46,7 +48,15 @@ public class AngelCodeFont implements Font {
     private static final int DISPLAY_LIST_CACHE_SIZE = 200;
 
     /** The highest character that AngelCodeFont will support. */
-    private static final int MAX_CHAR = 255;
+    private static final int MAX_CHAR = Character.MAX_VALUE;
+    /** The version of the binary format supported */
+    private static final int BINARY_VERSION = 3;
+    /** The binary block holding the common font details */
+    private static final int BLOCK_COMMON = 2;
+    /** The binary block holding the character definitions */
+    private static final int BLOCK_CHARS = 4;
+    /** The binary block holding the kerning pairs */
+    private static final int BLOCK_KERNING = 5;
 
     /** True if this font should use display list caching */
     private boolean displayListCaching = true;
@@ -55,6 +65,8 @@ public class AngelCodeFont implements Font {
     private final Image fontImage;
     /** The characters building up the font */
     private CharDef[] chars;
+    /** The kerning offsets between pairs of characters */
+    private final KerningTable kerning = new KerningTable();
     /** The height of a line */
     private int lineHeight;
     /** The first display list ID */
@@ -186,10 +198,17 @@ public class AngelCodeFont implements Font {
     private void parseFnt(InputStream fntFile) {
         displayCaching();
         try {
+            BufferedInputStream buffered = new BufferedInputStream(fntFile);
+            buffered.mark(3);
+            if (buffered.read() == 'B' && buffered.read() == 'M' && buffered.read() == 'F') {
+                parseBinary(buffered);
+                return;
+            }
+            buffered.reset();
+
             // now parse the font file
-            BufferedReader in = new BufferedReader(new InputStreamReader(fntFile));
-            Map<Short, List<Short>> kerning = new HashMap<>(64);
-            List<CharDef> charDefs = new ArrayList<>(MAX_CHAR);
+            BufferedReader in = new BufferedReader(new InputStreamReader(buffered));
+            List<CharDef> charDefs = new ArrayList<>(256);
             int maxChar = 0;
             while (true) {
                 String line = in.readLine();
@@ -203,29 +222,124 @@ public class AngelCodeFont implements Font {
                             charDefs.add(def);
                         }
                     } else if (line.startsWith("kerning") && !line.startsWith("kernings c")) {
-                        kerningTreatment(kerning, line);
+                        kerningTreatment(line);
                     }
                 }
             }
             
             chars = new CharDef[maxChar + 1];
             charDefs.forEach(def -> chars[def.id] = def);
-            kerningToChardef(kerning);
         } catch (IOException e) {
             throw new SlickException("Failed to parse font file: " + fntFile, e);
         }
     }
-    
-    private void kerningToChardef(Map<Short, List<Short>> kerning) {
-        for (Entry<Short, List<Short>> entry : kerning.entrySet()) {
-            short first = entry.getKey().shortValue();
-            List<Short> valueList = entry.getValue();
-            short[] valueArray = new short[valueList.size()];
-            int i = 0;
-            for (Iterator<Short> valueIter = valueList.iterator(); valueIter.hasNext(); i++) {
-                valueArray[i] = valueIter.next().shortValue();
+
+    /**
+     * Parse a font definition in the binary format, the identifying bytes having been read
+     *
+     * @param in
+     *            The stream from which the rest of the font file can be read
+     * @throws IOException
+     *             Indicates a failure to read the font file
+     */
+    private void parseBinary(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+
+        int version = data.get() & 0xFF;
+        if (version != BINARY_VERSION) {
+            throw new SlickException("Unsupported binary font version: " + version);
+        }
+
+        chars = new CharDef[0];
+        while (data.remaining() >= 5) {
+            int type = data.get() & 0xFF;
+            int size = data.getInt();
+            int end = data.position() + size;
+            if (end > data.limit()) {
+                throw new SlickException("Truncated binary font block: " + type);
+            }
+
+            if (type == BLOCK_COMMON) {
+                parseBinaryCommon(data);
+            } else if (type == BLOCK_CHARS) {
+                parseBinaryChars(data, size / 20);
+            } else if (type == BLOCK_KERNING) {
+                for (int i = 0; i < size / 10; i++) {
+                    long first = data.getInt() & 0xFFFFFFFFL;
+                    long second = data.getInt() & 0xFFFFFFFFL;
+                    short amount = data.getShort();
+                    if (first <= MAX_CHAR && second <= MAX_CHAR) {
+                        kerning.put((int) first, (int) second, amount);
+                    }
+                }
+            }
+            data.position(end);
+        }
+    }
+
+    /**
+     * Parse the common block of a binary font definition
+     *
+     * @param data
+     *            The data positioned at the start of the block
+     */
+    private void parseBinaryCommon(ByteBuffer data) {
+        data.getShort(); // line height, measured from the characters as for the text format
+        data.getShort(); // base
+        data.getShort(); // scale width
+        data.getShort(); // scale height
+        int pages = data.getShort() & 0xFFFF;
+        if (pages > 1) {
+            throw new SlickException("AngelCodeFont only supports single page fonts: " + pages + " pages");
+        }
+    }
+
+    /**
+     * Parse the characters block of a binary font definition
+     *
+     * @param data
+     *            The data positioned at the start of the block
+     * @param count
+     *            The number of characters in the block
+     */
+    private void parseBinaryChars(ByteBuffer data, int count) {
+        CharDef[] defs = new CharDef[count];
+        int maxChar = 0;
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            long id = data.getInt() & 0xFFFFFFFFL;
+            CharDef def = new CharDef();
+            def.x = data.getShort();
+            def.y = data.getShort();
+            def.width = data.getShort();
+            def.height = data.getShort();
+            def.xoffset = data.getShort();
+            def.yoffset = data.getShort();
+            def.xadvance = data.getShort();
+            data.get(); // page
+            data.get(); // channel
+            if (id > MAX_CHAR) {
+                continue;
+            }
+
+            def.id = (int) id;
+            def.init();
+            if (def.id != ' ') {
+                lineHeight = Math.max(def.height + def.yoffset, lineHeight);
             }
-            chars[first].kerning = valueArray;
+            maxChar = Math.max(maxChar, def.id);
+            defs[n++] = def;
+        }
+
+        chars = new CharDef[maxChar + 1];
+        for (int i = 0; i < n; i++) {
+            chars[defs[i].id] = defs[i];
         }
     }
 
@@ -238,22 +352,18 @@ public class AngelCodeFont implements Font {
         }
     }
     
-    private void kerningTreatment(Map<Short, List<Short>> kerning, String line) {
+    private void kerningTreatment(String line) {
         StringTokenizer tokens = new StringTokenizer(line, " =");
         tokens.nextToken(); // kerning
         tokens.nextToken(); // first
-        short first = Short.parseShort(tokens.nextToken()); // first value
+        int first = Integer.parseInt(tokens.nextToken()); // first value
         tokens.nextToken(); // second
         int second = Integer.parseInt(tokens.nextToken()); // second value
         tokens.nextToken(); // offset
         int offset = Integer.parseInt(tokens.nextToken()); // offset value
-        List<Short> values = kerning.get(first);
-        if (values == null) {
-            values = new ArrayList<>();
-            kerning.put(first, values);
+        if (first >= 0 && first <= MAX_CHAR && second >= 0 && second <= MAX_CHAR) {
+            kerning.put(first, second, (short) offset);
         }
-        // Pack the character and kerning offset into a short.
-        values.add((short) (offset << 8 | second));
     }
 
     /**
@@ -261,7 +371,8 @@ public class AngelCodeFont implements Font {
      *
      * @param line
      *            The line to be parsed
-     * @return The character definition from the line
+     * @return The character definition from the line or null if the character
+     *         isn't supported
      */
     private CharDef parseChar(String line) {
         CharDef def = new CharDef();
@@ -269,13 +380,11 @@ public class AngelCodeFont implements Font {
 
         tokens.nextToken(); // char
         tokens.nextToken(); // id
-        def.id = Short.parseShort(tokens.nextToken()); // id value
-        if (def.id < 0) {
+        def.id = Integer.parseInt(tokens.nextToken()); // id value
+        if (def.id < 0 || def.id > MAX_CHAR) {
+            // characters outside the basic multilingual plane are skipped, as in binary files
             return null;
         }
-        if (def.id > MAX_CHAR) {
-            throw new SlickException("Invalid character '" + def.id + "': AngelCodeFont does not support characters above " + MAX_CHAR);
-        }
 
         tokens.nextToken(); // x
         def.x = Short.parseShort(tokens.nextToken()); // x value
@@ -422,7 +531,7 @@ public class AngelCodeFont implements Font {
         int minYOffset = 10000;
         for (int i = 0; i < stopIndex; i++) {
             int id = text.charAt(i);
-            CharDef charDef = chars[id];
+            CharDef charDef = id < chars.length ? chars[id] : null;
             if (charDef == null) {
                 continue;
             }
@@ -457,7 +566,7 @@ public class AngelCodeFont implements Font {
                 maxHeight = 0;
                 continue;
             }
-            if (id != ' ' && chars[id] != null) {
+            if (id != ' ' && id < chars.length && chars[id] != null) {
                 maxHeight = Math.max(chars[id].height + chars[id].yoffset, maxHeight);
             }
         }
@@ -556,7 +665,7 @@ public class AngelCodeFont implements Font {
      */
     private class CharDef {
         /** The id of the character */
-        private short id;
+        private int id;
         /** The x location on the sprite sheet */
         private short x;
         /** The y location on the sprite sheet */
@@ -574,8 +683,6 @@ public class AngelCodeFont implements Font {
         private short xadvance;
         /** The image containing the character */
         private Image image;
-        /** The kerning info for this character */
-        private short[] kerning;
 
         /**
          * Initialise the image by cutting the right section from the map
@@ -613,25 +720,107 @@ public class AngelCodeFont implements Font {
          * @return the kerning offset
          */
         public int getKerning(int otherCodePoint) {
-            if (kerning == null) {
+            return kerning.get(id, otherCodePoint);
+        }
+    }
+
+    /**
+     * The kerning offsets between pairs of characters, held in an open addressing hash
+     * table keyed on both characters packed into an int so lookups don't allocate
+     */
+    private static class KerningTable {
+        /** The key marking an empty slot, the pair of two null characters which is never kerned */
+        private static final int EMPTY = 0;
+
+        /** The packed character pairs, or EMPTY */
+        private int[] keys = new int[16];
+        /** The kerning offset of each pair */
+        private short[] offsets = new short[16];
+        /** The number of pairs held */
+        private int size;
+
+        /**
+         * Set the kerning offset between two characters
+         *
+         * @param first
+         *            The character drawn first
+         * @param second
+         *            The character drawn after it
+         * @param offset
+         *            The offset to apply between them
+         */
+        void put(int first, int second, short offset) {
+            int key = first << 16 | second;
+            if (key == EMPTY) {
+                return;
+            }
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = slot + 1 & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                size++;
+            }
+            offsets[slot] = offset;
+        }
+
+        /**
+         * Get the kerning offset between two characters
+         *
+         * @param first
+         *            The character drawn first
+         * @param second
+         *            The character drawn after it
+         * @return The offset to apply between them, zero if they aren't kerned
+         */
+        int get(int first, int second) {
+            if (size == 0) {
                 return 0;
             }
-            int low = 0;
-            int high = kerning.length - 1;
-            while (low <= high) {
-                int midIndex = low + high >>> 1;
-                int value = kerning[midIndex];
-                int foundCodePoint = value & 0xff;
-                if (foundCodePoint < otherCodePoint) {
-                    low = midIndex + 1;
-                } else if (foundCodePoint > otherCodePoint) {
-                    high = midIndex - 1;
-                } else {
-                    return value >> 8;
+            int key = first << 16 | second;
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    return offsets[slot];
                 }
+                slot = slot + 1 & mask;
             }
             return 0;
         }
+
+        /**
+         * Double the capacity of the table
+         */
+        private void grow() {
+            int[] oldKeys = keys;
+            short[] oldOffsets = offsets;
+            keys = new int[oldKeys.length * 2];
+            offsets = new short[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i] >>> 16, oldKeys[i] & 0xFFFF, oldOffsets[i]);
+                }
+            }
+        }
+
+        /**
+         * Spread the bits of a key across the table
+         *
+         * @param key
+         *            The packed character pair
+         * @return The hash of the key
+         */
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ h >>> 16;
+        }
     }
 
     /**
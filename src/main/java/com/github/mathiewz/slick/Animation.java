@@ -379,6 +379,19 @@ public class Animation implements Renderable {
         }
     }
 
+    /**
+     * Advance the animation as drawing it would and get the image to draw
+     *
+     * @return The image of the frame to draw or null if there are no frames
+     */
+    Image advanceForDraw() {
+        if (frames.isEmpty()) {
+            return null;
+        }
+        autoUpdateRendering();
+        return getCurrentFrame().image;
+    }
+
     /**
      * Get the width of the current frame
      *
@@ -420,8 +420,11 @@ public class AppGameContainer extends GameContainer {
 
         Display.update();
 
-        if (Display.isCloseRequested() && game.closeRequested()) {
-            running = false;
+        if (Display.isCloseRequested()) {
+            awaitUpdate();
+            if (game.closeRequested()) {
+                running = false;
+            }
         }
     }
 
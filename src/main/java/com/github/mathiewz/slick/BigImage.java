@@ -2,13 +2,18 @@ package com.github.mathiewz.slick;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 
 import com.github.mathiewz.slick.opengl.ImageData;
 import com.github.mathiewz.slick.opengl.ImageDataFactory;
+import com.github.mathiewz.slick.opengl.InternalTextureLoader;
 import com.github.mathiewz.slick.opengl.LoadableImageData;
 import com.github.mathiewz.slick.opengl.Texture;
 import com.github.mathiewz.slick.util.OperationNotSupportedException;
@@ -25,6 +30,12 @@ import com.github.mathiewz.slick.util.ResourceLoader;
  * This implementation does come with limitations and some performance impact
  * however - so use only when absolutely required.
  *
+ * Images too big to keep on the card at once can be streamed. In streaming mode the
+ * decoded pixels stay in memory (or mapped from the decoded image cache) and tiles are
+ * only uploaded when a draw overlaps them, either the area of the screen covered or
+ * the source rectangle drawn. A bounded number of tiles is kept on the card and the
+ * least recently drawn are released when more are needed.
+ *
  * TODO: The code in here isn't pretty, really needs revisiting with a comment stick.
  *
  * @author kevin
@@ -47,6 +58,12 @@ public class BigImage extends Image {
     
     /** The last image that we put into "in use" mode */
     private static Image lastBind;
+    /** The buffer the model view matrix is read into when working out the visible area */
+    private static final FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
+    /** The buffer the viewport is read into when working out the visible area */
+    private static final IntBuffer viewportBuffer = BufferUtils.createIntBuffer(16);
+    /** The visible area last worked out */
+    private static final float[] visibleArea = new float[4];
     
     /** The images building up this sub-image */
     private Image[][] images;
@@ -58,6 +75,8 @@ public class BigImage extends Image {
     private int realWidth;
     /** The real hieght of the whole image - maintained even when scaled */
     private int realHeight;
+    /** The store tiles are uploaded from when streaming or null if all tiles are resident */
+    private TileStore store;
     
     /**
      * Create a new big image. Empty contructor for cloning only
@@ -133,6 +152,45 @@ public class BigImage extends Image {
         build(data, imageBuffer, filter, tileSize);
     }
     
+    /**
+     * Create a new big image that streams its tiles to the card as they're drawn
+     *
+     * @param ref
+     *            The reference to the image to load
+     * @param filter
+     *            The image filter to apply (@see #Image.FILTER_NEAREST)
+     * @param tileSize
+     *            The size of the tiles to use to build the bigger image
+     * @param maxResidentTiles
+     *            The number of tiles to keep on the card once drawn
+     */
+    public BigImage(String ref, int filter, int tileSize, int maxResidentTiles) {
+        try {
+            ImageData data = InternalTextureLoader.get().decode(ResourceLoader.getResourceAsStream(ref), ref, false, null);
+            stream(data, data.getImageBufferData(), filter, tileSize, maxResidentTiles);
+        } catch (IOException e) {
+            throw new SlickException("Failed to load: " + ref, e);
+        }
+    }
+    
+    /**
+     * Create a new big image that streams its tiles to the card as they're drawn
+     *
+     * @param data
+     *            The pixelData to use to create the image
+     * @param imageBuffer
+     *            The buffer containing texture data, kept to upload tiles from
+     * @param filter
+     *            The image filter to apply (@see #Image.FILTER_NEAREST)
+     * @param tileSize
+     *            The size of the tiles to use to build the bigger image
+     * @param maxResidentTiles
+     *            The number of tiles to keep on the card once drawn
+     */
+    public BigImage(ImageData data, ByteBuffer imageBuffer, int filter, int tileSize, int maxResidentTiles) {
+        stream(data, imageBuffer, filter, tileSize, maxResidentTiles);
+    }
+    
     /**
      * Get a sub tile of this big image. Useful for debugging
      *
@@ -143,9 +201,91 @@ public class BigImage extends Image {
      * @return The image used for this tile
      */
     public Image getTile(int x, int y) {
+        return tile(x, y);
+    }
+    
+    /**
+     * Get a tile of this image, uploading it first if the image is streamed
+     *
+     * @param x
+     *            The x tile index
+     * @param y
+     *            The y tile index
+     * @return The image used for this tile
+     */
+    private Image tile(int x, int y) {
+        if (store != null) {
+            return store.acquire(x, y);
+        }
         return images[x][y];
     }
     
+    /**
+     * Check if this image streams its tiles to the card as they're drawn
+     *
+     * @return True if the image is streamed
+     */
+    public boolean isStreaming() {
+        return store != null;
+    }
+    
+    /**
+     * Get the number of tiles currently on the card
+     *
+     * @return The number of tiles resident
+     */
+    public int getResidentTileCount() {
+        if (store == null) {
+            return xcount * ycount;
+        }
+        return store.resident.size();
+    }
+    
+    /**
+     * Get the number of tiles uploaded to the card while streaming
+     *
+     * @return The number of tile uploads
+     */
+    public int getTileUploadCount() {
+        return store == null ? 0 : store.uploads;
+    }
+    
+    /**
+     * Get the number of tiles released from the card while streaming
+     *
+     * @return The number of tile evictions
+     */
+    public int getTileEvictionCount() {
+        return store == null ? 0 : store.evictions;
+    }
+    
+    /**
+     * Set up this image to stream its tiles from the given pixels
+     *
+     * @param data
+     *            The pixelData to use to create the image
+     * @param imageBuffer
+     *            The buffer containing texture data
+     * @param filter
+     *            The filter to use when scaling this image
+     * @param tileSize
+     *            The size of the tiles to use to build the bigger image
+     * @param maxResidentTiles
+     *            The number of tiles to keep on the card once drawn
+     */
+    private void stream(ImageData data, ByteBuffer imageBuffer, int filter, int tileSize, int maxResidentTiles) {
+        if (tileSize <= 0 || maxResidentTiles <= 0) {
+            throw new IllegalArgumentException("Tile size and resident tile count must be positive");
+        }
+        realWidth = width = data.getWidth();
+        realHeight = height = data.getHeight();
+        xcount = (realWidth - 1) / tileSize + 1;
+        ycount = (realHeight - 1) / tileSize + 1;
+        images = new Image[xcount][ycount];
+        store = new TileStore(data, imageBuffer, filter, tileSize, maxResidentTiles, images);
+        inited = true;
+    }
+    
     /**
      * Create a new big image by loading it from the specified reference
      *
@@ -345,33 +485,92 @@ public class BigImage extends Image {
         GL.glTranslatef(x, y, 0);
         GL.glScalef(sx, sy, 1);
         
-        float xp = 0;
-        float yp = 0;
-        
-        for (int tx = 0; tx < xcount; tx++) {
-            yp = 0;
-            for (int ty = 0; ty < ycount; ty++) {
-                Image image = images[tx][ty];
-                
-                image.draw(xp, yp, image.getWidth(), image.getHeight(), filter);
-                
-                yp += image.getHeight();
-                if (ty == ycount - 1) {
-                    xp += image.getWidth();
+        if (store != null) {
+            float[] area = getVisibleArea();
+            for (int tx = 0; tx < xcount; tx++) {
+                for (int ty = 0; ty < ycount; ty++) {
+                    if (store.isVisible(tx, ty, area)) {
+                        Image image = store.acquire(tx, ty);
+                        image.draw(tx * store.tileSize, ty * store.tileSize, image.getWidth(), image.getHeight(), filter);
+                    }
                 }
             }
+            store.trim();
+        } else {
+            float xp = 0;
+            float yp = 0;
             
+            for (int tx = 0; tx < xcount; tx++) {
+                yp = 0;
+                for (int ty = 0; ty < ycount; ty++) {
+                    Image image = images[tx][ty];
+                    
+                    image.draw(xp, yp, image.getWidth(), image.getHeight(), filter);
+                    
+                    yp += image.getHeight();
+                    if (ty == ycount - 1) {
+                        xp += image.getWidth();
+                    }
+                }
+                
+            }
         }
         
         GL.glScalef(1.0f / sx, 1.0f / sy, 1);
         GL.glTranslatef(-x, -y, 0);
     }
     
+    /**
+     * Get the area of the screen in the current coordinate space, working back from the
+     * current model view matrix and viewport.
+     *
+     * @return The visible area as {minX, minY, maxX, maxY}, only valid until the next call,
+     *         or null if it can't be determined
+     */
+    private static float[] getVisibleArea() {
+        FloatBuffer matrix = matrixBuffer;
+        IntBuffer viewport = viewportBuffer;
+        GL.glGetFloat(GL11.GL_MODELVIEW_MATRIX, matrix);
+        GL.glGetInteger(GL11.GL_VIEWPORT, viewport);
+        
+        float a = matrix.get(0);
+        float b = matrix.get(1);
+        float c = matrix.get(4);
+        float d = matrix.get(5);
+        float det = a * d - b * c;
+        int viewWidth = viewport.get(2);
+        int viewHeight = viewport.get(3);
+        if (Math.abs(det) < 1e-6f || viewWidth <= 0 || viewHeight <= 0) {
+            return null;
+        }
+        
+        float[] area = visibleArea;
+        area[0] = Float.MAX_VALUE;
+        area[1] = Float.MAX_VALUE;
+        area[2] = -Float.MAX_VALUE;
+        area[3] = -Float.MAX_VALUE;
+        for (int corner = 0; corner < 4; corner++) {
+            float sx = (corner & 1) * viewWidth - matrix.get(12);
+            float sy = (corner >> 1) * viewHeight - matrix.get(13);
+            float lx = (d * sx - c * sy) / det;
+            float ly = (a * sy - b * sx) / det;
+            area[0] = Math.min(area[0], lx);
+            area[1] = Math.min(area[1], ly);
+            area[2] = Math.max(area[2], lx);
+            area[3] = Math.max(area[3], ly);
+        }
+        return area;
+    }
+    
     /**
      * @see com.github.mathiewz.slick.Image#draw(float, float, float, float, float, float, float, float)
      */
     @Override
     public void draw(float x, float y, float x2, float y2, float srcx, float srcy, float srcx2, float srcy2) {
+        if (store != null) {
+            drawStreamed(x, y, x2, y2, srcx, srcy, srcx2, srcy2, Color.white);
+            return;
+        }
         int srcwidth = (int) (srcx2 - srcx);
         int srcheight = (int) (srcy2 - srcy);
         
@@ -429,7 +628,12 @@ public class BigImage extends Image {
         for (int tx = 0; tx < xcount; tx++) {
             yp = 0;
             for (int ty = 0; ty < ycount; ty++) {
-                Image image = images[tx][ty];
+                if (store != null && lastBind != null) {
+                    // tiles can't be uploaded while another is in use
+                    lastBind.endUse();
+                    lastBind = null;
+                }
+                Image image = tile(tx, ty);
                 
                 if (lastBind == null || image.getTexture() != lastBind.getTexture()) {
                     if (lastBind != null) {
@@ -466,7 +670,7 @@ public class BigImage extends Image {
         for (int tx = 0; tx < xcount; tx++) {
             yp = 0;
             for (int ty = 0; ty < ycount; ty++) {
-                Image image = images[tx][ty];
+                Image image = tile(tx, ty);
                 
                 image.drawFlash(xp, yp, image.getWidth(), image.getHeight());
                 
@@ -478,6 +682,10 @@ public class BigImage extends Image {
             
         }
         
+        if (store != null) {
+            store.trim();
+        }
+        
         GL.glScalef(1.0f / sx, 1.0f / sy, 1);
         GL.glTranslatef(-x, -y, 0);
     }
@@ -501,6 +709,9 @@ public class BigImage extends Image {
             lastBind.endUse();
         }
         lastBind = null;
+        if (store != null) {
+            store.trim();
+        }
     }
     
     /**
@@ -537,6 +748,9 @@ public class BigImage extends Image {
      */
     @Override
     public Image getFlippedCopy(boolean flipHorizontal, boolean flipVertical) {
+        if (store != null) {
+            throw new OperationNotSupportedException("Can't flip streamed big images");
+        }
         BigImage image = new BigImage();
         
         image.images = images;
@@ -598,6 +812,7 @@ public class BigImage extends Image {
         BigImage image = new BigImage();
         
         image.images = images;
+        image.store = store;
         image.xcount = xcount;
         image.ycount = ycount;
         image.width = width;
@@ -613,6 +828,9 @@ public class BigImage extends Image {
      */
     @Override
     public Image getSubImage(int x, int y, int width, int height) {
+        if (store != null) {
+            throw new OperationNotSupportedException("Can't take sub-images of streamed big images, draw the area instead");
+        }
         BigImage image = new BigImage();
         
         image.width = width;
@@ -722,7 +940,7 @@ public class BigImage extends Image {
      * @return The image at the specified offset into the big image
      */
     public Image getSubImage(int offsetX, int offsetY) {
-        return images[offsetX][offsetY];
+        return tile(offsetX, offsetY);
     }
     
     /**
@@ -757,6 +975,10 @@ public class BigImage extends Image {
      */
     @Override
     public void destroy() {
+        if (store != null) {
+            store.clear();
+            return;
+        }
         for (int tx = 0; tx < xcount; tx++) {
             for (int ty = 0; ty < ycount; ty++) {
                 Image image = images[tx][ty];
@@ -770,6 +992,10 @@ public class BigImage extends Image {
      */
     @Override
     public void draw(float x, float y, float x2, float y2, float srcx, float srcy, float srcx2, float srcy2, Color filter) {
+        if (store != null) {
+            drawStreamed(x, y, x2, y2, srcx, srcy, srcx2, srcy2, filter);
+            return;
+        }
         int srcwidth = (int) (srcx2 - srcx);
         int srcheight = (int) (srcy2 - srcy);
         
@@ -781,6 +1007,57 @@ public class BigImage extends Image {
         subImage.draw(x, y, width, height, filter);
     }
     
+    /**
+     * Draw a section of a streamed image, uploading only the tiles the section overlaps
+     *
+     * @param x
+     *            The x position to draw the image
+     * @param y
+     *            The y position to draw the image
+     * @param x2
+     *            The x position of the bottom right corner of the drawn image
+     * @param y2
+     *            The y position of the bottom right corner of the drawn image
+     * @param srcx
+     *            The x position of the rectangle to draw from this image
+     * @param srcy
+     *            The y position of the rectangle to draw from this image
+     * @param srcx2
+     *            The x position of the bottom right corner of rectangle to draw from this image
+     * @param srcy2
+     *            The y position of the bottom right corner of rectangle to draw from this image
+     * @param filter
+     *            The colour filter to apply when drawing
+     */
+    private void drawStreamed(float x, float y, float x2, float y2, float srcx, float srcy, float srcx2, float srcy2, Color filter) {
+        float scaleX = (x2 - x) / (srcx2 - srcx);
+        float scaleY = (y2 - y) / (srcy2 - srcy);
+        int tileSize = store.tileSize;
+        
+        int startX = Math.max(0, (int) (srcx / tileSize));
+        int startY = Math.max(0, (int) (srcy / tileSize));
+        int endX = Math.min(xcount - 1, (int) Math.ceil(srcx2 / tileSize) - 1);
+        int endY = Math.min(ycount - 1, (int) Math.ceil(srcy2 / tileSize) - 1);
+        
+        for (int tx = startX; tx <= endX; tx++) {
+            for (int ty = startY; ty <= endY; ty++) {
+                float left = tx * tileSize;
+                float top = ty * tileSize;
+                float ix1 = Math.max(srcx, left);
+                float iy1 = Math.max(srcy, top);
+                float ix2 = Math.min(srcx2, Math.min(left + tileSize, realWidth));
+                float iy2 = Math.min(srcy2, Math.min(top + tileSize, realHeight));
+                if (ix2 <= ix1 || iy2 <= iy1) {
+                    continue;
+                }
+                
+                Image image = store.acquire(tx, ty);
+                image.draw(x + (ix1 - srcx) * scaleX, y + (iy1 - srcy) * scaleY, x + (ix2 - srcx) * scaleX, y + (iy2 - srcy) * scaleY, ix1 - left, iy1 - top, ix2 - left, iy2 - top, filter);
+            }
+        }
+        store.trim();
+    }
+    
     /**
      * @see com.github.mathiewz.slick.Image#drawCentered(float, float)
      */
@@ -820,4 +1097,196 @@ public class BigImage extends Image {
     public void drawSheared(float x, float y, float hshear, float vshear) {
         throw new UnsupportedOperationException();
     }
+    
+    /**
+     * The source of tiles for a streamed image. Tiles are cut from the source pixels and
+     * uploaded when first drawn, then kept in least recently drawn order until there are
+     * more than allowed on the card.
+     */
+    private static class TileStore {
+        /** The image data describing the source pixels */
+        private final ImageData data;
+        /** The source pixels tiles are cut from */
+        private final ByteBuffer pixels;
+        /** The filter applied to the tiles */
+        private final int filter;
+        /** The size of the tiles */
+        private final int tileSize;
+        /** The number of tiles that may stay on the card */
+        private final int maxResident;
+        /** The tiles of the image, null where not resident */
+        private final Image[][] images;
+        /** The draw each tile was last used in */
+        private final int[][] used;
+        /** The resident tiles keyed on their index, least recently drawn first */
+        private final LinkedHashMap<Integer, Image> resident = new LinkedHashMap<>(16, 0.75f, true);
+        /** The current draw, tiles used in it are never evicted */
+        private int draw = 1;
+        /** The number of tiles uploaded */
+        private int uploads;
+        /** The number of tiles evicted */
+        private int evictions;
+        
+        /**
+         * Create a new store
+         *
+         * @param data
+         *            The image data describing the source pixels
+         * @param pixels
+         *            The source pixels
+         * @param filter
+         *            The filter applied to the tiles
+         * @param tileSize
+         *            The size of the tiles
+         * @param maxResident
+         *            The number of tiles that may stay on the card
+         * @param images
+         *            The tiles of the image
+         */
+        TileStore(ImageData data, ByteBuffer pixels, int filter, int tileSize, int maxResident, Image[][] images) {
+            this.data = data;
+            this.pixels = pixels;
+            this.filter = filter;
+            this.tileSize = tileSize;
+            this.maxResident = maxResident;
+            this.images = images;
+            used = new int[images.length][images[0].length];
+        }
+        
+        /**
+         * Check if a tile overlaps an area
+         *
+         * @param tx
+         *            The x tile index
+         * @param ty
+         *            The y tile index
+         * @param area
+         *            The area as {minX, minY, maxX, maxY} or null to treat every tile as visible
+         * @return True if the tile overlaps the area
+         */
+        boolean isVisible(int tx, int ty, float[] area) {
+            if (area == null) {
+                return true;
+            }
+            float left = tx * tileSize;
+            float top = ty * tileSize;
+            return left < area[2] && top < area[3] && left + tileSize > area[0] && top + tileSize > area[1];
+        }
+        
+        /**
+         * Get a tile, uploading it if it's not resident
+         *
+         * @param tx
+         *            The x tile index
+         * @param ty
+         *            The y tile index
+         * @return The tile image
+         */
+        Image acquire(int tx, int ty) {
+            used[tx][ty] = draw;
+            Image image = resident.get(tx * images[0].length + ty);
+            if (image == null) {
+                image = upload(tx, ty);
+                images[tx][ty] = image;
+                resident.put(tx * images[0].length + ty, image);
+                uploads++;
+            }
+            return image;
+        }
+        
+        /**
+         * Cut a tile from the source pixels and upload it
+         *
+         * @param tx
+         *            The x tile index
+         * @param ty
+         *            The y tile index
+         * @return The uploaded tile image
+         */
+        private Image upload(int tx, int ty) {
+            final int components = data.getDepth() / 8;
+            final int tileWidth = Math.min(data.getWidth() - tx * tileSize, tileSize);
+            final int tileHeight = Math.min(data.getHeight() - ty * tileSize, tileSize);
+            final ByteBuffer tile = BufferUtils.createByteBuffer(tileSize * tileSize * components);
+            
+            ByteBuffer source = pixels.duplicate();
+            int rowBytes = tileWidth * components;
+            for (int i = 0; i < tileHeight; i++) {
+                int offset = ((ty * tileSize + i) * data.getTexWidth() + tx * tileSize) * components;
+                source.limit(offset + rowBytes).position(offset);
+                tile.position(i * tileSize * components);
+                tile.put(source);
+            }
+            tile.clear();
+            
+            return new Image(new ImageData() {
+                @Override
+                public int getDepth() {
+                    return data.getDepth();
+                }
+                
+                @Override
+                public int getWidth() {
+                    return tileWidth;
+                }
+                
+                @Override
+                public int getHeight() {
+                    return tileHeight;
+                }
+                
+                @Override
+                public int getTexWidth() {
+                    return tileSize;
+                }
+                
+                @Override
+                public int getTexHeight() {
+                    return tileSize;
+                }
+                
+                @Override
+                public ByteBuffer getImageBufferData() {
+                    return tile;
+                }
+            }, filter);
+        }
+        
+        /**
+         * Release the least recently drawn tiles until no more than the allowed number
+         * are resident. Tiles used in the current draw are kept regardless.
+         */
+        void trim() {
+            if (resident.size() > maxResident) {
+                // make sure nothing batched still refers to a tile we're about to release
+                GL.flush();
+                int rows = images[0].length;
+                Iterator<Map.Entry<Integer, Image>> tiles = resident.entrySet().iterator();
+                while (tiles.hasNext() && resident.size() > maxResident) {
+                    Map.Entry<Integer, Image> tile = tiles.next();
+                    int key = tile.getKey();
+                    if (used[key / rows][key % rows] == draw) {
+                        break;
+                    }
+                    tiles.remove();
+                    images[key / rows][key % rows] = null;
+                    tile.getValue().destroy();
+                    evictions++;
+                }
+            }
+            draw++;
+        }
+        
+        /**
+         * Release all the resident tiles
+         */
+        void clear() {
+            int rows = images[0].length;
+            for (Integer key : resident.keySet()) {
+                images[key / rows][key % rows].destroy();
+                images[key / rows][key % rows] = null;
+            }
+            resident.clear();
+        }
+    }
 }
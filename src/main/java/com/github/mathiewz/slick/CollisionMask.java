@@ -0,0 +1,292 @@
+package com.github.mathiewz.slick;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.github.mathiewz.slick.opengl.Texture;
+
+/**
+ * A pixel perfect collision mask built from the alpha channel of an image. Each pixel
+ * with an alpha at or above the threshold is solid, and the mask is held as rows of
+ * bits packed into longs so two masks can be tested against each other 64 pixels at
+ * a time.
+ *
+ * Masks are expensive to build since the texture data has to be read back, so they
+ * should be built once and reused. {@link #forImage(Image)} keeps a mask for each image
+ * for as long as the image is in use.
+ *
+ * @author mathiewz
+ */
+public class CollisionMask {
+    /** The threshold used when none is given, any pixel not fully transparent is solid */
+    public static final int DEFAULT_THRESHOLD = 1;
+
+    /** The masks built for images */
+    private static final Map<Image, CollisionMask> cache = new WeakHashMap<>();
+
+    /** The width of the mask */
+    private final int width;
+    /** The height of the mask */
+    private final int height;
+    /** The number of words in each row */
+    private final int wordsPerRow;
+    /** The alpha at or above which a pixel is solid */
+    private final int threshold;
+    /** The bits of the mask, a row at a time with the leftmost pixel of each word in its lowest bit */
+    private final long[] bits;
+
+    /**
+     * Create a new collision mask from an image
+     *
+     * @param image
+     *            The image whose alpha channel defines the mask
+     */
+    public CollisionMask(Image image) {
+        this(image, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Create a new collision mask from an image
+     *
+     * @param image
+     *            The image whose alpha channel defines the mask
+     * @param threshold
+     *            The alpha (0 to 255) at or above which a pixel is solid
+     */
+    public CollisionMask(Image image, int threshold) {
+        if (threshold < 0 || threshold > 255) {
+            throw new IllegalArgumentException("Alpha threshold must be between 0 and 255: " + threshold);
+        }
+
+        width = image.getWidth();
+        height = image.getHeight();
+        wordsPerRow = width + 63 >>> 6;
+        this.threshold = threshold;
+        bits = new long[wordsPerRow * height];
+
+        Texture texture = image.getTexture();
+        if (!texture.hasAlpha()) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    set(x, y);
+                }
+            }
+            return;
+        }
+
+        byte[] data = texture.getTextureData();
+        int[] columns = sample(image.getTextureOffsetX(), image.getTextureWidth(), texture.getTextureWidth(), width);
+        int[] rows = sample(image.getTextureOffsetY(), image.getTextureHeight(), texture.getTextureHeight(), height);
+
+        for (int y = 0; y < height; y++) {
+            int row = rows[y] * texture.getTextureWidth();
+            for (int x = 0; x < width; x++) {
+                int alpha = data[(row + columns[x]) * 4 + 3] & 0xFF;
+                if (alpha >= threshold) {
+                    set(x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the texel sampled for each pixel along one axis of an image, which may be
+     * scaled or flipped relative to its texture
+     *
+     * @param offset
+     *            The offset of the image into the texture, as a fraction of the texture
+     * @param extent
+     *            The size of the image in the texture, as a fraction of the texture,
+     *            negative if the image is flipped
+     * @param textureSize
+     *            The size of the texture in texels
+     * @param size
+     *            The size of the image in pixels
+     * @return The texel sampled at the centre of each pixel
+     */
+    private static int[] sample(float offset, float extent, int textureSize, int size) {
+        int[] texels = new int[size];
+        float start = offset * textureSize;
+        float step = extent * textureSize / size;
+        for (int i = 0; i < size; i++) {
+            int texel = (int) Math.floor(start + (i + 0.5f) * step);
+            texels[i] = Math.max(0, Math.min(textureSize - 1, texel));
+        }
+        return texels;
+    }
+
+    /**
+     * Get the mask for an image, building it the first time it's requested
+     *
+     * @param image
+     *            The image to get the mask for
+     * @return The mask for the image
+     */
+    public static CollisionMask forImage(Image image) {
+        return forImage(image, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Get the mask for an image, building it the first time it's requested or if it
+     * was last built with a different threshold
+     *
+     * @param image
+     *            The image to get the mask for
+     * @param threshold
+     *            The alpha (0 to 255) at or above which a pixel is solid
+     * @return The mask for the image
+     */
+    public static synchronized CollisionMask forImage(Image image, int threshold) {
+        CollisionMask mask = cache.get(image);
+        if (mask == null || mask.threshold != threshold) {
+            mask = new CollisionMask(image, threshold);
+            cache.put(image, mask);
+        }
+        return mask;
+    }
+
+    /**
+     * Remove the mask kept for an image, for instance once the image has been changed
+     *
+     * @param image
+     *            The image to remove the mask for
+     */
+    public static synchronized void evict(Image image) {
+        cache.remove(image);
+    }
+
+    /**
+     * Remove all the masks kept for images
+     */
+    public static synchronized void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Get the width of the mask
+     *
+     * @return The width of the mask
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the mask
+     *
+     * @return The height of the mask
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the alpha at or above which a pixel is solid
+     *
+     * @return The alpha threshold of the mask
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Check if a pixel of the mask is solid
+     *
+     * @param x
+     *            The x position of the pixel
+     * @param y
+     *            The y position of the pixel
+     * @return True if the pixel is solid, false if it's clear or outside the mask
+     */
+    public boolean contains(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        return (bits[y * wordsPerRow + (x >>> 6)] & 1L << x) != 0;
+    }
+
+    /**
+     * Check if this mask overlaps another
+     *
+     * @param other
+     *            The mask to check against
+     * @param dx
+     *            The x position of the other mask relative to this one
+     * @param dy
+     *            The y position of the other mask relative to this one
+     * @return True if a solid pixel of this mask is covered by a solid pixel of the other
+     */
+    public boolean intersects(CollisionMask other, int dx, int dy) {
+        int left = Math.max(0, dx);
+        int right = Math.min(width, dx + other.width);
+        int top = Math.max(0, dy);
+        int bottom = Math.min(height, dy + other.height);
+        if (left >= right || top >= bottom) {
+            return false;
+        }
+
+        int firstWord = left >>> 6;
+        int lastWord = right - 1 >>> 6;
+        for (int y = top; y < bottom; y++) {
+            int row = y * wordsPerRow;
+            int otherRow = (y - dy) * other.wordsPerRow;
+            for (int word = firstWord; word <= lastWord; word++) {
+                if ((bits[row + word] & other.bitsAt(otherRow, (word << 6) - dx)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if this mask overlaps another when both are drawn at the given positions
+     *
+     * @param x
+     *            The x position this mask is drawn at
+     * @param y
+     *            The y position this mask is drawn at
+     * @param other
+     *            The mask to check against
+     * @param otherX
+     *            The x position the other mask is drawn at
+     * @param otherY
+     *            The y position the other mask is drawn at
+     * @return True if a solid pixel of this mask is covered by a solid pixel of the other
+     */
+    public boolean intersects(float x, float y, CollisionMask other, float otherX, float otherY) {
+        return intersects(other, Math.round(otherX - x), Math.round(otherY - y));
+    }
+
+    /**
+     * Mark a pixel as solid
+     *
+     * @param x
+     *            The x position of the pixel
+     * @param y
+     *            The y position of the pixel
+     */
+    private void set(int x, int y) {
+        bits[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+    }
+
+    /**
+     * Get 64 bits of a row starting at any pixel, with the pixels outside the mask clear
+     *
+     * @param row
+     *            The index of the first word of the row
+     * @param start
+     *            The pixel to start at, which may be outside the mask
+     * @return The bits of the 64 pixels from the start pixel
+     */
+    private long bitsAt(int row, int start) {
+        int word = start >> 6;
+        int shift = start & 63;
+        long low = word >= 0 && word < wordsPerRow ? bits[row + word] : 0;
+        if (shift == 0) {
+            return low;
+        }
+        long high = word + 1 >= 0 && word + 1 < wordsPerRow ? bits[row + word + 1] : 0;
+        return low >>> shift | high << 64 - shift;
+    }
+}
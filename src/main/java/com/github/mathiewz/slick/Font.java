@@ -88,4 +88,35 @@ public interface Font {
      *            The index of the last character from the string to draw
      */
     public abstract void drawString(float x, float y, String text, Color col, int startIndex, int endIndex);
+
+    /**
+     * Get the measurements of the given text. The measurements are held in a cache shared
+     * between fonts, so measuring the same text again is cheap.
+     *
+     * @param text
+     *            The text to measure
+     * @return The measurements of the text
+     * @see TextMetricsCache
+     */
+    public default TextMetrics measure(CharSequence text) {
+        return measure(text, 0, text.length());
+    }
+
+    /**
+     * Get the measurements of part of the given text, without copying it out of the text
+     * unless it hasn't been measured before. The measurements are held in a cache shared
+     * between fonts, so measuring the same text again is cheap.
+     *
+     * @param text
+     *            The text holding the part to measure
+     * @param start
+     *            The index of the first character to measure
+     * @param end
+     *            The index after the last character to measure
+     * @return The measurements of the part of the text
+     * @see TextMetricsCache
+     */
+    public default TextMetrics measure(CharSequence text, int start, int end) {
+        return TextMetricsCache.get().measure(this, text, start, end);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,14 @@
 package com.github.mathiewz.slick;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.lwjgl.LWJGLException;
@@ -14,8 +21,11 @@ import org.lwjgl.opengl.Pbuffer;
 import org.lwjgl.opengl.PixelFormat;
 
 import com.github.mathiewz.slick.gui.GUIContext;
+import com.github.mathiewz.slick.imageout.CaptureSession;
+import com.github.mathiewz.slick.imageout.ImageOut;
 import com.github.mathiewz.slick.openal.SoundStore;
 import com.github.mathiewz.slick.opengl.CursorLoader;
+import com.github.mathiewz.slick.opengl.PixelReadback;
 import com.github.mathiewz.slick.opengl.renderer.Renderer;
 import com.github.mathiewz.slick.opengl.renderer.SGL;
 import com.github.mathiewz.slick.util.Log;
@@ -62,6 +72,20 @@ public abstract class GameContainer implements GUIContext {
     protected int targetFPS = -1;
     /** True if we should show the fps */
     private boolean showFPS = true;
+    /** True if we should show the render statistics */
+    private boolean showRenderStats;
+    /** The session rendered frames are captured into, or null if none */
+    private CaptureSession captureSession;
+    /** The statistics describing the work done for each frame */
+    private final RenderStats renderStats = RenderStats.get();
+    /** The thread updating the game when update and render are decoupled, or null if not */
+    private ExecutorService updateThread;
+    /** The context the game renders into on the update thread */
+    private RecordingGraphics recorder;
+    /** The frame being updated and recorded on the update thread */
+    private Future<List<Consumer<Graphics>>> pendingFrame;
+    /** The time the update thread spent updating the game for the last frame it completed */
+    private long threadedUpdateTime;
     /** The minimum logic update interval */
     protected long minimumLogicInterval = 1;
     /** The stored delta */
@@ -616,9 +640,38 @@ public abstract class GameContainer implements GUIContext {
             }
         }
         
-        input.poll(height);
+        renderStats.nextFrame();
         
-        Music.poll(delta);
+        if (updateThread != null) {
+            updateAndRenderThreaded(delta);
+        } else {
+            input.poll(height);
+            
+            Music.poll(delta);
+            
+            long updateStart = System.nanoTime();
+            updateGame(delta);
+            renderStats.addUpdateTime(System.nanoTime() - updateStart);
+            
+            if (hasFocus() || getAlwaysRender()) {
+                renderFrame(null);
+            }
+        }
+        
+        PixelReadback.get().update();
+        
+        if (targetFPS != -1) {
+            Display.sync(targetFPS);
+        }
+    }
+    
+    /**
+     * Update the game logic, honouring the minimum and maximum logic intervals
+     *
+     * @param delta
+     *            The change in time since last update
+     */
+    private void updateGame(int delta) {
         if (!paused) {
             storedDelta += delta;
             
@@ -650,38 +703,229 @@ public abstract class GameContainer implements GUIContext {
         } else {
             game.update(this, 0);
         }
+    }
+    
+    /**
+     * Render a frame to the display
+     *
+     * @param commands
+     *            The commands recorded for the frame on the update thread, or null
+     *            to render the game directly
+     */
+    private void renderFrame(List<Consumer<Graphics>> commands) {
+        if (clearEachFrame) {
+            GL.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+        }
         
-        if (hasFocus() || getAlwaysRender()) {
-            if (clearEachFrame) {
-                GL.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
-            }
-            
-            GL.glLoadIdentity();
-            
-            graphics.resetTransform();
-            graphics.resetFont();
-            graphics.resetLineWidth();
-            graphics.setAntiAlias(false);
+        GL.glLoadIdentity();
+        
+        graphics.resetTransform();
+        graphics.resetFont();
+        graphics.resetLineWidth();
+        graphics.setAntiAlias(false);
+        long renderStart = System.nanoTime();
+        if (commands == null) {
             try {
                 game.render(this, graphics);
             } catch (Throwable e) {
                 Log.error(e);
                 throw new SlickException("Game.render() failure - check the game code.");
             }
-            graphics.resetTransform();
-            
-            if (showFPS) {
-                defaultFont.drawString(10, 10, "FPS: " + recordedFPS);
+        } else {
+            RecordingGraphics.replay(commands, graphics);
+        }
+        graphics.resetTransform();
+        renderStats.addRenderTime(System.nanoTime() - renderStart);
+        
+        // the overlays aren't part of the frame being measured
+        renderStats.suspend();
+        if (showFPS) {
+            defaultFont.drawString(10, 10, "FPS: " + recordedFPS);
+        }
+        if (showRenderStats) {
+            drawRenderStats();
+        }
+        renderStats.resume();
+        
+        GL.flush();
+        
+        if (captureSession != null) {
+            if (captureSession.isClosed()) {
+                captureSession = null;
+            } else {
+                captureSession.capture();
             }
-            
-            GL.flush();
+        }
+    }
+    
+    /**
+     * Update and render with the game updated on the update thread. The frame
+     * recorded by the previous update is replayed while the next one is
+     * being updated and recorded.
+     *
+     * @param delta
+     *            The change in time since last update and render
+     */
+    private void updateAndRenderThreaded(int delta) {
+        if (recorder == null) {
+            recorder = new RecordingGraphics(width, height);
         }
         
-        if (targetFPS != -1) {
-            Display.sync(targetFPS);
+        List<Consumer<Graphics>> commands = awaitFrame();
+        renderStats.addUpdateTime(threadedUpdateTime);
+        
+        // listeners are only notified once the update thread is idle, so the
+        // game is never called from both threads at once
+        input.poll(height);
+        
+        Music.poll(delta);
+        
+        boolean render = hasFocus() || getAlwaysRender();
+        pendingFrame = updateThread.submit(() -> recordFrame(delta, render));
+        
+        if (render && commands != null) {
+            renderFrame(commands);
+        }
+    }
+    
+    /**
+     * Update the game and record its rendering. Runs on the update thread.
+     *
+     * @param delta
+     *            The change in time since last update
+     * @param render
+     *            True if the frame should be rendered
+     * @return The commands recorded for the frame or null if it wasn't rendered
+     */
+    private List<Consumer<Graphics>> recordFrame(int delta, boolean render) {
+        long updateStart = System.nanoTime();
+        updateGame(delta);
+        threadedUpdateTime = System.nanoTime() - updateStart;
+        
+        if (!render) {
+            return null;
+        }
+        
+        recorder.startFrame();
+        recorder.resetTransform();
+        recorder.resetFont();
+        recorder.resetLineWidth();
+        recorder.setAntiAlias(false);
+        try {
+            game.render(this, recorder);
+        } catch (Throwable e) {
+            Log.error(e);
+            throw new SlickException("Game.render() failure - check the game code.");
+        }
+        recorder.resetTransform();
+        return recorder.endFrame();
+    }
+    
+    /**
+     * Wait for the update thread to complete the frame it's working on
+     *
+     * @return The commands recorded for the frame or null if there's nothing to render
+     */
+    private List<Consumer<Graphics>> awaitFrame() {
+        if (pendingFrame == null) {
+            return null;
+        }
+        
+        try {
+            return pendingFrame.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlickException("Interrupted waiting for the update thread", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SlickException) {
+                throw (SlickException) e.getCause();
+            }
+            throw new SlickException("Update thread failure", e.getCause());
+        } finally {
+            pendingFrame = null;
+        }
+    }
+    
+    /**
+     * Wait for the update thread, if the game is updated on one, to finish the frame
+     * it's working on so the game can safely be called from the display thread. The
+     * frame is kept to be rendered as usual.
+     */
+    protected void awaitUpdate() {
+        if (pendingFrame == null) {
+            return;
+        }
+        
+        try {
+            pendingFrame.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlickException("Interrupted waiting for the update thread", e);
+        } catch (ExecutionException e) {
+            // reported when the frame is collected
+        }
+    }
+    
+    /**
+     * Indicate whether the game should be updated on its own thread. When enabled
+     * the game is updated, and rendered into a recording graphics context, on the
+     * update thread while the previous frame is replayed on the display thread, so
+     * a slow update no longer holds up presenting frames. Frames are displayed one
+     * update behind.
+     *
+     * Input is still polled on the display thread while the update thread is idle.
+     * Only drawing performed through the Graphics passed to render() is recorded -
+     * the game mustn't touch OpenGL directly, for instance by creating images or
+     * drawing them with Image.draw(), from update() or render() in this mode. Images,
+     * shapes and fonts drawn are replayed by reference so shouldn't be changed
+     * until the following update.
+     *
+     * @param threaded
+     *            True if the game should be updated on its own thread
+     */
+    public void setThreadedRendering(boolean threaded) {
+        if (threaded == isThreadedRendering()) {
+            return;
+        }
+        
+        if (threaded) {
+            updateThread = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "Slick Update");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            awaitFrame();
+            updateThread.shutdown();
+            updateThread = null;
         }
     }
     
+    /**
+     * Check if the game is being updated on its own thread
+     *
+     * @return True if the game is being updated on its own thread
+     */
+    public boolean isThreadedRendering() {
+        return updateThread != null;
+    }
+    
+    /**
+     * Draw the statistics for the last frame below the FPS counter
+     */
+    private void drawRenderStats() {
+        int lineHeight = defaultFont.getLineHeight();
+        int y = showFPS ? 10 + lineHeight : 10;
+        
+        defaultFont.drawString(10, y, "Draw calls: " + renderStats.getDrawCalls() + " Vertices: " + renderStats.getVertices());
+        y += lineHeight;
+        defaultFont.drawString(10, y, "Binds: " + renderStats.getTextureBinds() + " Flushes: " + renderStats.getFlushes());
+        y += lineHeight;
+        defaultFont.drawString(10, y, "Font lists: " + renderStats.getFontListHits() + " hit " + renderStats.getFontListMisses() + " miss");
+        y += lineHeight;
+        defaultFont.drawString(10, y, "Update: " + renderStats.getUpdateTime() / 1000 + "us Render: " + renderStats.getRenderTime() / 1000 + "us");
+    }
+    
     /**
      * Indicate if the display should update only when the game is visible
      * (the default is true)
@@ -764,6 +1008,57 @@ public abstract class GameContainer implements GUIContext {
         return showFPS;
     }
     
+    /**
+     * Indicate whether the container should show the render statistics of the
+     * last frame below the FPS
+     *
+     * @param show
+     *            True if the container should show the render statistics
+     */
+    public void setShowRenderStats(boolean show) {
+        showRenderStats = show;
+    }
+    
+    /**
+     * Check if the render statistics are currently showing
+     *
+     * @return True if the render statistics are showing
+     */
+    public boolean isShowingRenderStats() {
+        return showRenderStats;
+    }
+    
+    /**
+     * Get the statistics describing the work done to produce the last frame.
+     * The statistics are moved on to a new frame at the start of each update
+     * and render.
+     *
+     * @return The render statistics for the last complete frame
+     */
+    public RenderStats getRenderStats() {
+        return renderStats;
+    }
+    
+    /**
+     * Set the session each rendered frame is captured into. The session is
+     * dropped by the container once it's closed.
+     *
+     * @param session
+     *            The session to capture frames into or null to stop capturing
+     */
+    public void setCaptureSession(CaptureSession session) {
+        captureSession = session;
+    }
+    
+    /**
+     * Get the session each rendered frame is captured into
+     *
+     * @return The session frames are captured into or null if none
+     */
+    public CaptureSession getCaptureSession() {
+        return captureSession;
+    }
+    
     /**
      * Set the target fps we're hoping to get
      *
@@ -838,6 +1133,22 @@ public abstract class GameContainer implements GUIContext {
         return graphics;
     }
     
+    /**
+     * Save a screenshot of the display to a file on the local file system. The format
+     * is determined based on the file name extension. The screen is read back without
+     * stalling the frame and encoded away from the OpenGL thread, so this must be
+     * called on the OpenGL thread but returns straight away.
+     *
+     * @param dest
+     *            The destination path to write to
+     * @return A future completed once the screenshot has been written
+     */
+    public CompletableFuture<Void> saveScreenshot(String dest) {
+        int w = getWidth();
+        int h = getHeight();
+        return graphics.getAreaAsync(0, 0, w, h).thenAcceptAsync(pixels -> ImageOut.write(pixels, w, h, dest, false));
+    }
+    
     /**
      * Enter the orthographic mode
      *
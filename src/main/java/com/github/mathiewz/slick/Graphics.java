@@ -6,6 +6,7 @@ import java.nio.FloatBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
@@ -13,6 +14,8 @@ import org.lwjgl.opengl.GL11;
 import com.github.mathiewz.slick.geom.Rectangle;
 import com.github.mathiewz.slick.geom.Shape;
 import com.github.mathiewz.slick.geom.ShapeRenderer;
+import com.github.mathiewz.slick.geom.Transform;
+import com.github.mathiewz.slick.opengl.PixelReadback;
 import com.github.mathiewz.slick.opengl.TextureImpl;
 import com.github.mathiewz.slick.opengl.renderer.LineStripRenderer;
 import com.github.mathiewz.slick.opengl.renderer.Renderer;
@@ -112,6 +115,8 @@ public class Graphics {
 
     /** The current drawing mode */
     private int currentDrawingMode = MODE_NORMAL;
+    /** The drawing mode last applied to GL by this context */
+    private int appliedDrawingMode = MODE_NORMAL;
 
     /** The current line width */
     private float lineWidth = 1;
@@ -121,6 +126,13 @@ public class Graphics {
     /** The index into the stack we're using */
     private int stackIndex;
 
+    /** The queue of draws waiting to be submitted or null if drawing immediately */
+    private RenderQueue queue;
+    /** The layer draws are recorded on in deferred mode */
+    private int layer;
+    /** The depth draws are recorded at in deferred mode */
+    private float depth;
+
     /**
      * Default constructor for sub-classes
      */
@@ -168,7 +180,8 @@ public class Graphics {
 
     /**
      * Set the drawing mode to use. This mode defines how pixels are drawn to
-     * the graphics context. It can be used to draw into the alpha map.
+     * the graphics context. It can be used to draw into the alpha map. In
+     * deferred mode the drawing mode is recorded with each draw.
      *
      * The mode supplied should be one of {@link Graphics#MODE_NORMAL} or
      * {@link Graphics#MODE_ALPHA_MAP} or {@link Graphics#MODE_ALPHA_BLEND}
@@ -177,40 +190,69 @@ public class Graphics {
      *            The mode to apply.
      */
     public void setDrawMode(int mode) {
+        if (queue != null) {
+            // the mode is recorded with each draw and applied as they're submitted
+            currentDrawingMode = mode;
+            return;
+        }
         glOperation(() -> {
             currentDrawingMode = mode;
-            if (currentDrawingMode == MODE_NORMAL) {
-                GL.glEnable(GL11.GL_BLEND);
-                GL.glColorMask(true, true, true, true);
-                GL.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-            }
-            if (currentDrawingMode == MODE_ALPHA_MAP) {
-                GL.glDisable(GL11.GL_BLEND);
-                GL.glColorMask(false, false, false, true);
-            }
-            if (currentDrawingMode == MODE_ALPHA_BLEND) {
-                GL.glEnable(GL11.GL_BLEND);
-                GL.glColorMask(true, true, true, false);
-                GL.glBlendFunc(GL11.GL_DST_ALPHA, GL11.GL_ONE_MINUS_DST_ALPHA);
-            }
-            if (currentDrawingMode == MODE_COLOR_MULTIPLY) {
-                GL.glEnable(GL11.GL_BLEND);
-                GL.glColorMask(true, true, true, true);
-                GL.glBlendFunc(GL11.GL_ONE_MINUS_SRC_COLOR, GL11.GL_SRC_COLOR);
-            }
-            if (currentDrawingMode == MODE_ADD) {
-                GL.glEnable(GL11.GL_BLEND);
-                GL.glColorMask(true, true, true, true);
-                GL.glBlendFunc(GL11.GL_ONE, GL11.GL_ONE);
-            }
-            if (currentDrawingMode == MODE_SCREEN) {
-                GL.glEnable(GL11.GL_BLEND);
-                GL.glColorMask(true, true, true, true);
-                GL.glBlendFunc(GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_COLOR);
-            }
+            useDrawMode(mode);
         });
     }
 
+    /**
+     * Apply a drawing mode to GL, keeping track of the mode applied
+     *
+     * @param mode
+     *            The drawing mode to apply, one of the MODE_* constants
+     */
+    private void useDrawMode(int mode) {
+        appliedDrawingMode = mode;
+        applyDrawMode(GL, mode);
+    }
+
+    /**
+     * Apply the GL blending and colour mask state described by one of the
+     * drawing modes to a renderer
+     *
+     * @param gl
+     *            The renderer to apply the state to
+     * @param mode
+     *            The drawing mode to apply, one of the MODE_* constants
+     */
+    static void applyDrawMode(SGL gl, int mode) {
+        if (mode == MODE_NORMAL) {
+            gl.glEnable(GL11.GL_BLEND);
+            gl.glColorMask(true, true, true, true);
+            gl.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        }
+        if (mode == MODE_ALPHA_MAP) {
+            gl.glDisable(GL11.GL_BLEND);
+            gl.glColorMask(false, false, false, true);
+        }
+        if (mode == MODE_ALPHA_BLEND) {
+            gl.glEnable(GL11.GL_BLEND);
+            gl.glColorMask(true, true, true, false);
+            gl.glBlendFunc(GL11.GL_DST_ALPHA, GL11.GL_ONE_MINUS_DST_ALPHA);
+        }
+        if (mode == MODE_COLOR_MULTIPLY) {
+            gl.glEnable(GL11.GL_BLEND);
+            gl.glColorMask(true, true, true, true);
+            gl.glBlendFunc(GL11.GL_ONE_MINUS_SRC_COLOR, GL11.GL_SRC_COLOR);
+        }
+        if (mode == MODE_ADD) {
+            gl.glEnable(GL11.GL_BLEND);
+            gl.glColorMask(true, true, true, true);
+            gl.glBlendFunc(GL11.GL_ONE, GL11.GL_ONE);
+        }
+        if (mode == MODE_SCREEN) {
+            gl.glEnable(GL11.GL_BLEND);
+            gl.glColorMask(true, true, true, true);
+            gl.glBlendFunc(GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_COLOR);
+        }
+    }
+
     /**
      * Clear the state of the alpha map across the entire screen. This sets
      * alpha to 0 everywhere, meaning in {@link Graphics#MODE_ALPHA_BLEND}
@@ -236,6 +278,7 @@ public class Graphics {
      */
     private void predraw() {
         setCurrent(this);
+        submitQueue();
     }
 
     /**
@@ -252,9 +295,14 @@ public class Graphics {
     }
 
     /**
-     * Flush this graphics context to the underlying rendering context
+     * Flush this graphics context to the underlying rendering context. In
+     * deferred mode any draws waiting are sorted and submitted first.
      */
     public void flush() {
+        if (queue != null && (!queue.isEmpty() || appliedDrawingMode != currentDrawingMode)) {
+            setCurrent(this);
+            submitQueue();
+        }
         if (currentGraphics == this) {
             currentGraphics.disable();
             currentGraphics = null;
@@ -317,6 +365,7 @@ public class Graphics {
      * Reset the transformation on this graphics context
      */
     public void resetTransform() {
+        submitQueue();
         sx = 1;
         sy = 1;
 
@@ -424,6 +473,10 @@ public class Graphics {
         }
 
         currentColor = new Color(color);
+        if (queue != null) {
+            // the colour is recorded with each draw and bound as they're submitted
+            return;
+        }
         glOperation(() -> {
             currentColor.bind();
         });
@@ -498,10 +551,11 @@ public class Graphics {
      *            The fill type to apply
      */
     public void draw(Shape shape, ShapeFill fill) {
-        glOperation(() -> {
+        Shape drawn = snapshot(shape);
+        drawOperation(null, () -> {
             TextureImpl.bindNone();
 
-            ShapeRenderer.draw(shape, fill);
+            ShapeRenderer.draw(drawn, fill);
 
             currentColor.bind();
         });
@@ -516,10 +570,11 @@ public class Graphics {
      *            The fill type to apply
      */
     public void fill(Shape shape, ShapeFill fill) {
-        glOperation(() -> {
+        Shape drawn = snapshot(shape);
+        drawOperation(null, () -> {
             TextureImpl.bindNone();
 
-            ShapeRenderer.fill(shape, fill);
+            ShapeRenderer.fill(drawn, fill);
 
             currentColor.bind();
         });
@@ -532,11 +587,12 @@ public class Graphics {
      *            The shape to draw.
      */
     public void draw(Shape shape) {
-        glOperation(() -> {
+        Shape drawn = snapshot(shape);
+        drawOperation(null, () -> {
             TextureImpl.bindNone();
             currentColor.bind();
 
-            ShapeRenderer.draw(shape);
+            ShapeRenderer.draw(drawn);
 
         });
     }
@@ -548,11 +604,12 @@ public class Graphics {
      *            The shape to fill.
      */
     public void fill(Shape shape) {
-        glOperation(() -> {
+        Shape drawn = snapshot(shape);
+        drawOperation(null, () -> {
             TextureImpl.bindNone();
             currentColor.bind();
 
-            ShapeRenderer.fill(shape);
+            ShapeRenderer.fill(drawn);
 
         });
     }
@@ -632,14 +689,15 @@ public class Graphics {
      *            True if we want to fit the image on to the shape
      */
     public void texture(Shape shape, Image image, float scaleX, float scaleY, boolean fit) {
-        glOperation(() -> {
+        Shape drawn = snapshot(shape);
+        drawOperation(image, () -> {
             TextureImpl.bindNone();
             currentColor.bind();
 
             if (fit) {
-                ShapeRenderer.textureFit(shape, image, scaleX, scaleY);
+                ShapeRenderer.textureFit(drawn, image, scaleX, scaleY);
             } else {
-                ShapeRenderer.texture(shape, image, scaleX, scaleY);
+                ShapeRenderer.texture(drawn, image, scaleX, scaleY);
             }
 
         });
@@ -660,11 +718,12 @@ public class Graphics {
      *            The shape fill to apply
      */
     public void texture(Shape shape, Image image, float scaleX, float scaleY, ShapeFill fill) {
-        glOperation(() -> {
+        Shape drawn = snapshot(shape);
+        drawOperation(image, () -> {
             TextureImpl.bindNone();
             currentColor.bind();
 
-            ShapeRenderer.texture(shape, image, scaleX, scaleY, fill);
+            ShapeRenderer.texture(drawn, image, scaleX, scaleY, fill);
 
         });
     }
@@ -876,7 +935,7 @@ public class Graphics {
      *            The height of the rectangle to fill
      */
     public void fillRect(float x1, float y1, float width, float height) {
-        glOperation(() -> {
+        drawOperation(null, () -> {
             TextureImpl.bindNone();
             currentColor.bind();
 
@@ -1339,7 +1398,8 @@ public class Graphics {
      *            The y coordinate to draw the string at
      */
     public void drawString(String str, float x, float y) {
-        glOperation(() -> {
+        Font font = this.font;
+        drawOperation(null, () -> {
             font.drawString(x, y, str, currentColor);
         });
     }
@@ -1357,8 +1417,9 @@ public class Graphics {
      *            The color to apply to the image as a filter
      */
     public void drawImage(Image image, float x, float y, Color col) {
-        glOperation(() -> {
-            image.draw(x, y, col);
+        Color filter = snapshot(col);
+        drawOperation(image, () -> {
+            image.draw(x, y, filter);
             currentColor.bind();
         });
     }
@@ -1390,8 +1451,14 @@ public class Graphics {
      *            The color to apply to the animation as a filter
      */
     public void drawAnimation(Animation anim, float x, float y, Color col) {
-        glOperation(() -> {
-            anim.draw(x, y, col);
+        // pick the frame now so it's the one the draw is sorted on
+        Image frame = anim.advanceForDraw();
+        if (frame == null) {
+            return;
+        }
+        Color filter = snapshot(col);
+        drawOperation(frame, () -> {
+            frame.draw(x, y, frame.getWidth(), frame.getHeight(), filter);
             currentColor.bind();
         });
     }
@@ -1438,7 +1505,7 @@ public class Graphics {
      *            draw from this image (i.e. relative to the image)
      */
     public void drawImage(Image image, float x, float y, float x2, float y2, float srcx, float srcy, float srcx2, float srcy2) {
-        glOperation(() -> {
+        drawOperation(image, () -> {
             image.draw(x, y, x2, y2, srcx, srcy, srcx2, srcy2);
             currentColor.bind();
         });
@@ -1545,6 +1612,51 @@ public class Graphics {
         });
     }
 
+    /**
+     * Start reading an area of pixels as RGBA values without waiting for the card. The
+     * returned future completes a frame or two later on the OpenGL thread.
+     *
+     * @see PixelReadback
+     *
+     * @param x
+     *            The x position in the context to grab from
+     * @param y
+     *            The y position in the context to grab from
+     * @param width
+     *            The width of the area to grab from
+     * @param height
+     *            The hiehgt of the area to grab from
+     * @return The pixels of the area, top row first, once they've been read
+     */
+    public CompletableFuture<ByteBuffer> getAreaAsync(int x, int y, int width, int height) {
+        CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+        glOperation(() -> {
+            GL.flush();
+            PixelReadback.get().read(x, screenHeight - y - height, width, height).whenComplete((pixels, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(pixels);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Start reading the colour of a single pixel without waiting for the card. The
+     * returned future completes a frame or two later on the OpenGL thread.
+     *
+     * @param x
+     *            The x coordinate of the pixel to read
+     * @param y
+     *            The y coordinate of the pixel to read
+     * @return The colour of the pixel once it's been read
+     */
+    public CompletableFuture<Color> getPixelAsync(int x, int y) {
+        return getAreaAsync(x, y, 1, 1).thenApply(pixels -> new Color(translate(pixels.get(0)), translate(pixels.get(1)), translate(pixels.get(2)), translate(pixels.get(3))));
+    }
+
     /**
      * Draw a section of an image at a particular location and scale on the
      * screen
@@ -1575,8 +1687,9 @@ public class Graphics {
      *            The color to apply to the image as a filter
      */
     public void drawImage(Image image, float x, float y, float x2, float y2, float srcx, float srcy, float srcx2, float srcy2, Color col) {
-        glOperation(() -> {
-            image.draw(x, y, x2, y2, srcx, srcy, srcx2, srcy2, col);
+        Color filter = snapshot(col);
+        drawOperation(image, () -> {
+            image.draw(x, y, x2, y2, srcx, srcy, srcx2, srcy2, filter);
             currentColor.bind();
         });
     }
@@ -1741,6 +1854,230 @@ public class Graphics {
 
     }
 
+    /**
+     * Indicate whether draws should be deferred. In deferred mode images, shapes,
+     * filled rectangles and strings are recorded rather than drawn, and are
+     * sorted on layer, drawing mode, texture and depth before being submitted
+     * together. The current colour and drawing mode are recorded with each draw,
+     * as are copies of the shapes and filter colours given, the rotation and
+     * alpha of images and the current frame of animations. Other state of the
+     * objects drawn, such as a shape fill or an image's centre of rotation, is
+     * read when the draws are submitted.
+     *
+     * Any other operation - changing the transform, clip, line width or
+     * anti-aliasing, reading back pixels or drawing a primitive that isn't
+     * deferred - submits the draws recorded so far first, as does flush().
+     * Leaving deferred mode submits anything still waiting.
+     *
+     * @param deferred
+     *            True if draws should be recorded and sorted
+     */
+    public void setDeferred(boolean deferred) {
+        if (deferred == isDeferred()) {
+            return;
+        }
+        if (deferred) {
+            queue = new RenderQueue();
+        } else {
+            setCurrent(this);
+            submitQueue();
+            queue = null;
+        }
+    }
+
+    /**
+     * Check if draws are being deferred
+     *
+     * @return True if draws are being recorded and sorted
+     */
+    public boolean isDeferred() {
+        return queue != null;
+    }
+
+    /**
+     * Set the layer draws are recorded on in deferred mode. Lower layers are
+     * always drawn before higher ones.
+     *
+     * @param layer
+     *            The layer to record draws on, between 0 and 255
+     */
+    public void setLayer(int layer) {
+        checkLayer(layer);
+        this.layer = layer;
+    }
+
+    /**
+     * Get the layer draws are recorded on in deferred mode
+     *
+     * @return The layer draws are recorded on
+     */
+    public int getLayer() {
+        return layer;
+    }
+
+    /**
+     * Set the depth draws are recorded at in deferred mode. Within a layer
+     * draws with the same drawing mode and texture are drawn from the lowest
+     * depth to the highest.
+     *
+     * @param depth
+     *            The depth to record draws at
+     */
+    public void setDepth(float depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Get the depth draws are recorded at in deferred mode
+     *
+     * @return The depth draws are recorded at
+     */
+    public float getDepth() {
+        return depth;
+    }
+
+    /**
+     * Indicate whether draws on a layer must be drawn in the order they're made.
+     * Preserving the order means the draws on the layer aren't sorted on drawing
+     * mode, texture or depth. Only has an effect in deferred mode and applies to
+     * draws made from now on.
+     *
+     * @param layer
+     *            The layer to configure, between 0 and 255
+     * @param preserve
+     *            True if draws on the layer should keep their order
+     */
+    public void setPreserveOrder(int layer, boolean preserve) {
+        checkLayer(layer);
+        if (queue == null) {
+            throw new SlickException("Draw order can only be configured in deferred mode - see setDeferred()");
+        }
+        queue.setPreserveOrder(layer, preserve);
+    }
+
+    /**
+     * Check if draws on a layer are drawn in the order they're made
+     *
+     * @param layer
+     *            The layer to check, between 0 and 255
+     * @return True if draws on the layer keep their order
+     */
+    public boolean isPreservingOrder(int layer) {
+        checkLayer(layer);
+        return queue != null && queue.isPreservingOrder(layer);
+    }
+
+    /**
+     * Check a layer is in the range supported by the deferred queue
+     *
+     * @param layer
+     *            The layer to check
+     */
+    private void checkLayer(int layer) {
+        if (layer < 0 || layer >= RenderQueue.LAYERS) {
+            throw new IllegalArgumentException("Layer must be between 0 and " + (RenderQueue.LAYERS - 1) + ": " + layer);
+        }
+    }
+
+    /**
+     * Sort and submit the draws waiting in the deferred queue, restoring the
+     * colour and drawing mode of the context afterwards
+     */
+    private void submitQueue() {
+        if (queue == null) {
+            return;
+        }
+        if (queue.isEmpty()) {
+            // the drawing mode may have changed with nothing recorded since
+            if (appliedDrawingMode != currentDrawingMode) {
+                useDrawMode(currentDrawingMode);
+            }
+            return;
+        }
+
+        Color color = currentColor;
+        queue.sort();
+        int lastMode = -1;
+        for (int i = 0; i < queue.size(); i++) {
+            RenderQueue.Command command = queue.get(i);
+            if (command.mode != lastMode) {
+                lastMode = command.mode;
+                useDrawMode(lastMode);
+            }
+            // the draws bind the context colour so point it at the recorded one
+            currentColor = command.color;
+            command.action.run();
+        }
+        queue.clear();
+
+        currentColor = color;
+        currentColor.bind();
+        if (appliedDrawingMode != currentDrawingMode) {
+            useDrawMode(currentDrawingMode);
+        }
+    }
+
+    /**
+     * Perform a draw, or record it to be sorted and submitted later if the
+     * context is in deferred mode
+     *
+     * @param image
+     *            The image the draw is textured with or null if none
+     * @param r
+     *            The operation performing the draw
+     */
+    private void drawOperation(Image image, Runnable r) {
+        if (queue == null) {
+            glOperation(r);
+            return;
+        }
+
+        if (image == null) {
+            queue.add(layer, currentDrawingMode, 0, depth, currentColor, r);
+            return;
+        }
+
+        // big images are drawn from several textures so have none to sort on
+        int textureID = image instanceof BigImage ? 0 : image.getTexture().getTextureID();
+
+        // draw with the rotation and alpha the image has now, not when submitted
+        float rotation = image.getRotation();
+        float alpha = image.getAlpha();
+        queue.add(layer, currentDrawingMode, textureID, depth, currentColor, () -> {
+            float currentRotation = image.getRotation();
+            float currentAlpha = image.getAlpha();
+            image.setRotation(rotation);
+            image.setAlpha(alpha);
+            r.run();
+            image.setRotation(currentRotation);
+            image.setAlpha(currentAlpha);
+        });
+    }
+
+    /**
+     * Take a copy of a shape to be drawn if it's going to be recorded, so later
+     * changes to the shape don't affect the draw
+     *
+     * @param shape
+     *            The shape to be drawn
+     * @return The shape to draw
+     */
+    private Shape snapshot(Shape shape) {
+        return queue == null ? shape : shape.transform(new Transform());
+    }
+
+    /**
+     * Take a copy of a colour to be drawn with if it's going to be recorded, so
+     * later changes to the colour don't affect the draw
+     *
+     * @param color
+     *            The colour to be drawn with
+     * @return The colour to draw with
+     */
+    private Color snapshot(Color color) {
+        return queue == null || color == null ? color : new Color(color);
+    }
+
     private void glOperation(Runnable r) {
         predraw();
         r.run();
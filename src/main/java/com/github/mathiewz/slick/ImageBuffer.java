@@ -2,10 +2,16 @@ package com.github.mathiewz.slick;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
 
 import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
 
+import com.github.mathiewz.slick.geom.Rectangle;
 import com.github.mathiewz.slick.opengl.ImageData;
+import com.github.mathiewz.slick.opengl.renderer.Renderer;
+import com.github.mathiewz.slick.opengl.renderer.SGL;
 
 /**
  * A utility for creating images from pixel operations
@@ -18,9 +24,23 @@ import com.github.mathiewz.slick.opengl.ImageData;
  * Image image = buffer.getImage();
  * </code>
  *
+ * For buffers that change every frame, such as minimaps or fog of war, a persistent
+ * image can be used instead. It's created once and {@link #update()} uploads only
+ * the areas changed since the last upload:
+ * <code>
+ * Image image = buffer.getPersistentImage();
+ * buffer.setRGBA(100,100,50,50,20,255);
+ * buffer.update();
+ * </code>
+ *
  * @author kevin
  */
 public class ImageBuffer implements ImageData {
+    /** The renderer to use for all GL operations */
+    private static final SGL GL = Renderer.get();
+    /** The number of dirty areas tracked before they're merged into one */
+    private static final int MAX_DIRTY_AREAS = 16;
+
     /** The width of the image */
     private final int width;
     /** The height of the image */
@@ -31,7 +51,21 @@ public class ImageBuffer implements ImageData {
     private final int texHeight;
     /** The raw data generated for the image */
     private final byte[] rawData;
+    /** The areas changed since the persistent image was last updated, as x, y, width, height */
+    private final ArrayList<int[]> dirty = new ArrayList<>();
+    /** The image kept up to date with this buffer, or null if none has been created */
+    private Image persistent;
+    /** The buffer dirty areas are packed into for upload */
+    private ByteBuffer scratch;
 
+    /**
+     * Create a new image buffer
+     *
+     * @param width
+     *            The width of the image
+     * @param height
+     *            The height of the image
+     */
     public ImageBuffer(int width, int height) {
         this.width = width;
         this.height = height;
@@ -124,8 +158,73 @@ public class ImageBuffer implements ImageData {
             throw new SlickException("Specified location: " + x + "," + y + " outside of image");
         }
 
-        int ofs = (x + y * texWidth) * 4;
+        put((x + y * texWidth) * 4, r, g, b, a);
+        markDirty(x, y, 1, 1);
+    }
 
+    /**
+     * Set a row of pixels in the image buffer
+     *
+     * @param x
+     *            The x position of the first pixel to set
+     * @param y
+     *            The y position of the row to set
+     * @param pixels
+     *            The pixels to set, packed as ARGB (0xAARRGGBB). Pixels are read from the
+     *            current position up to the limit of the buffer
+     */
+    public void setRow(int x, int y, IntBuffer pixels) {
+        setRegion(x, y, pixels.remaining(), 1, pixels);
+    }
+
+    /**
+     * Set a rectangular region of pixels in the image buffer
+     *
+     * @param x
+     *            The x position of the top left of the region
+     * @param y
+     *            The y position of the top left of the region
+     * @param width
+     *            The width of the region
+     * @param height
+     *            The height of the region
+     * @param pixels
+     *            The pixels to set, packed as ARGB (0xAARRGGBB) a row at a time starting
+     *            from the current position of the buffer, which is advanced past them
+     */
+    public void setRegion(int x, int y, int width, int height, IntBuffer pixels) {
+        if (x < 0 || y < 0 || width < 0 || height < 0 || x + width > this.width || y + height > this.height) {
+            throw new SlickException("Specified region: " + x + "," + y + " " + width + "x" + height + " outside of image");
+        }
+        if (pixels.remaining() < width * height) {
+            throw new IllegalArgumentException("Not enough pixels for region: " + pixels.remaining() + " < " + width * height);
+        }
+
+        for (int row = y; row < y + height; row++) {
+            int ofs = (x + row * texWidth) * 4;
+            for (int i = 0; i < width; i++, ofs += 4) {
+                int argb = pixels.get();
+                put(ofs, argb >> 16 & 0xFF, argb >> 8 & 0xFF, argb & 0xFF, argb >>> 24);
+            }
+        }
+        markDirty(x, y, width, height);
+    }
+
+    /**
+     * Store a pixel in the raw data
+     *
+     * @param ofs
+     *            The offset of the pixel in the raw data
+     * @param r
+     *            The red component to set (0 to 255)
+     * @param g
+     *            The green component to set (0 to 255)
+     * @param b
+     *            The blue component to set (0 to 255)
+     * @param a
+     *            The alpha component to set (0 to 255)
+     */
+    private void put(int ofs, int r, int g, int b, int a) {
         if (ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN) {
             rawData[ofs] = (byte) b;
             rawData[ofs + 1] = (byte) g;
@@ -139,6 +238,138 @@ public class ImageBuffer implements ImageData {
         }
     }
 
+    /**
+     * Mark an area of the buffer as changed since the persistent image was last updated, for
+     * use after writing to {@link #getRGBA()} directly. Areas touching an existing one are
+     * merged into it, and once too many are tracked they're all merged into their bounds.
+     *
+     * @param x
+     *            The x position of the area
+     * @param y
+     *            The y position of the area
+     * @param width
+     *            The width of the area
+     * @param height
+     *            The height of the area
+     */
+    public void markDirty(int x, int y, int width, int height) {
+        if (persistent == null || width <= 0 || height <= 0) {
+            return;
+        }
+
+        int[] area = { x, y, width, height };
+        for (int i = 0; i < dirty.size(); i++) {
+            int[] other = dirty.get(i);
+            if (x <= other[0] + other[2] && other[0] <= x + width && y <= other[1] + other[3] && other[1] <= y + height) {
+                dirty.remove(i);
+                union(area, other);
+                i = -1;
+            }
+        }
+        dirty.add(area);
+
+        if (dirty.size() > MAX_DIRTY_AREAS) {
+            int[] bounds = dirty.get(0);
+            for (int[] other : dirty) {
+                union(bounds, other);
+            }
+            dirty.clear();
+            dirty.add(bounds);
+        }
+    }
+
+    /**
+     * Grow an area to cover another
+     *
+     * @param area
+     *            The area to grow, as x, y, width, height
+     * @param other
+     *            The area to cover, as x, y, width, height
+     */
+    private static void union(int[] area, int[] other) {
+        int right = Math.max(area[0] + area[2], other[0] + other[2]);
+        int bottom = Math.max(area[1] + area[3], other[1] + other[3]);
+        area[0] = Math.min(area[0], other[0]);
+        area[1] = Math.min(area[1], other[1]);
+        area[2] = right - area[0];
+        area[3] = bottom - area[1];
+    }
+
+    /**
+     * Get the areas changed since the persistent image was last updated
+     *
+     * @return The changed areas
+     */
+    public Rectangle[] getDirtyAreas() {
+        Rectangle[] areas = new Rectangle[dirty.size()];
+        for (int i = 0; i < areas.length; i++) {
+            int[] area = dirty.get(i);
+            areas[i] = new Rectangle(area[0], area[1], area[2], area[3]);
+        }
+        return areas;
+    }
+
+    /**
+     * Get an image that's kept up to date with this buffer. The image is created with
+     * the whole buffer the first time it's requested, after which {@link #update()}
+     * uploads only the areas that have changed.
+     *
+     * @return The image kept up to date with this buffer
+     */
+    public Image getPersistentImage() {
+        return getPersistentImage(Image.FILTER_LINEAR);
+    }
+
+    /**
+     * Get an image that's kept up to date with this buffer. The image is created with
+     * the whole buffer the first time it's requested, after which {@link #update()}
+     * uploads only the areas that have changed.
+     *
+     * @param filter
+     *            The filtering method to use when scaling the image, only applied when it's created
+     * @return The image kept up to date with this buffer
+     */
+    public Image getPersistentImage(int filter) {
+        if (persistent == null || persistent.isDestroyed()) {
+            persistent = new Image(this, filter);
+            dirty.clear();
+        }
+        return persistent;
+    }
+
+    /**
+     * Upload the areas of the buffer changed since the last update to the persistent
+     * image. Does nothing if no persistent image has been created.
+     */
+    public void update() {
+        if (persistent == null || dirty.isEmpty()) {
+            return;
+        }
+        if (persistent.isDestroyed()) {
+            getPersistentImage(persistent.getFilter() == GL11.GL_NEAREST ? Image.FILTER_NEAREST : Image.FILTER_LINEAR);
+            return;
+        }
+
+        persistent.bind();
+        for (int[] area : dirty) {
+            int x = area[0];
+            int y = area[1];
+            int w = area[2];
+            int h = area[3];
+            int stride = w * 4;
+            if (scratch == null || scratch.capacity() < stride * h) {
+                scratch = BufferUtils.createByteBuffer(stride * h);
+            }
+            scratch.clear();
+            for (int row = y; row < y + h; row++) {
+                scratch.put(rawData, (x + row * texWidth) * 4, stride);
+            }
+            scratch.flip();
+            GL.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, w, h, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, scratch);
+        }
+        dirty.clear();
+    }
+
     /**
      * Get an image generated based on this buffer
      *
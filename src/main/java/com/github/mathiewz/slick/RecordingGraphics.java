@@ -0,0 +1,658 @@
+package com.github.mathiewz.slick;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import com.github.mathiewz.slick.geom.Rectangle;
+import com.github.mathiewz.slick.geom.Shape;
+
+/**
+ * A graphics context that doesn't draw anything but records each operation
+ * performed on it so the frame can be replayed against a real context later,
+ * possibly on another thread. Recording doesn't touch OpenGL so it's safe to
+ * render into from a thread other than the one owning the display.
+ *
+ * Two command lists are kept. endFrame() hands back the list just recorded and
+ * the next startFrame() records into the other one, so one frame can be
+ * replayed while the next is being recorded.
+ *
+ * Only operations performed through this context are recorded. The images,
+ * shapes and fonts passed in are replayed by reference, so they shouldn't be
+ * changed while a frame they were drawn in is being replayed. Colours are
+ * copied, the rotation and alpha of images captured and animations advanced to
+ * the frame to draw as they're recorded. Reading pixels back isn't supported.
+ *
+ * @author mathiewz
+ */
+public class RecordingGraphics extends Graphics {
+    /** The list commands are being recorded into */
+    private List<Consumer<Graphics>> recording = new ArrayList<>();
+    /** The list handed out by the last endFrame() */
+    private List<Consumer<Graphics>> recorded = new ArrayList<>();
+
+    /** The colour set on the context */
+    private Color color = Color.white;
+    /** The width of lines set on the context */
+    private float lineWidth = 1;
+    /** True if anti-aliasing has been set on the context */
+    private boolean antialias;
+    /** The screen clip set on the context */
+    private Rectangle clip;
+    /** The world clip set on the context */
+    private Rectangle worldClip;
+    /** The number of transforms pushed and not popped */
+    private int pushed;
+    /** True if deferred mode has been set on the context */
+    private boolean deferred;
+    /** True for each layer that has been set to preserve its draw order */
+    private final boolean[] preserved = new boolean[RenderQueue.LAYERS];
+
+    /**
+     * Create a new recording context
+     *
+     * @param width
+     *            The width of the screen being recorded for
+     * @param height
+     *            The height of the screen being recorded for
+     */
+    public RecordingGraphics(int width, int height) {
+        super(width, height);
+    }
+
+    /**
+     * Start recording a new frame, discarding whatever was recorded into
+     * the list that's about to be reused
+     */
+    public void startFrame() {
+        recording.clear();
+        pushed = 0;
+    }
+
+    /**
+     * Finish recording the current frame
+     *
+     * @return The commands recorded for the frame
+     */
+    public List<Consumer<Graphics>> endFrame() {
+        List<Consumer<Graphics>> frame = recording;
+        recording = recorded;
+        recorded = frame;
+        return frame;
+    }
+
+    /**
+     * Replay a recorded frame against a graphics context
+     *
+     * @param commands
+     *            The commands recorded for the frame
+     * @param target
+     *            The context to perform the commands on
+     */
+    public static void replay(List<Consumer<Graphics>> commands, Graphics target) {
+        for (Consumer<Graphics> command : commands) {
+            command.accept(target);
+        }
+    }
+
+    /**
+     * Record a command
+     *
+     * @param command
+     *            The command to perform when replayed
+     */
+    private void record(Consumer<Graphics> command) {
+        recording.add(command);
+    }
+
+    /**
+     * Record a draw of an image with the rotation and alpha it has now. The image
+     * is only changed while replaying if it's been rotated or faded since.
+     *
+     * @param image
+     *            The image being drawn
+     * @param command
+     *            The command drawing the image
+     */
+    private void recordImage(Image image, Consumer<Graphics> command) {
+        float rotation = image.getRotation();
+        float alpha = image.getAlpha();
+        record(g -> {
+            float currentRotation = image.getRotation();
+            float currentAlpha = image.getAlpha();
+            if (currentRotation == rotation && currentAlpha == alpha) {
+                command.accept(g);
+                return;
+            }
+            image.setRotation(rotation);
+            image.setAlpha(alpha);
+            command.accept(g);
+            image.setRotation(currentRotation);
+            image.setAlpha(currentAlpha);
+        });
+    }
+
+    /**
+     * Copy a colour so later changes to it don't affect the recording
+     *
+     * @param col
+     *            The colour to copy or null
+     * @return The copy or null if no colour was given
+     */
+    private static Color copy(Color col) {
+        return col == null ? null : new Color(col);
+    }
+
+    /**
+     * Fail an operation that needs to read from the display
+     */
+    private static void readBackUnsupported() {
+        throw new SlickException("Reading back pixels is not supported while recording");
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setDrawMode(int)
+     */
+    @Override
+    public void setDrawMode(int mode) {
+        record(g -> g.setDrawMode(mode));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#clearAlphaMap()
+     */
+    @Override
+    public void clearAlphaMap() {
+        record(Graphics::clearAlphaMap);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#flush()
+     */
+    @Override
+    public void flush() {
+        record(Graphics::flush);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setBackground(com.github.mathiewz.slick.Color)
+     */
+    @Override
+    public void setBackground(Color color) {
+        Color col = copy(color);
+        record(g -> g.setBackground(col));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#getBackground()
+     */
+    @Override
+    public Color getBackground() {
+        readBackUnsupported();
+        return null;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#clear()
+     */
+    @Override
+    public void clear() {
+        record(Graphics::clear);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#resetTransform()
+     */
+    @Override
+    public void resetTransform() {
+        record(Graphics::resetTransform);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#scale(float, float)
+     */
+    @Override
+    public void scale(float sx, float sy) {
+        record(g -> g.scale(sx, sy));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#rotate(float, float, float)
+     */
+    @Override
+    public void rotate(float rx, float ry, float ang) {
+        record(g -> g.rotate(rx, ry, ang));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#translate(float, float)
+     */
+    @Override
+    public void translate(float x, float y) {
+        record(g -> g.translate(x, y));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setFont(com.github.mathiewz.slick.Font)
+     */
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        record(g -> g.setFont(font));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#resetFont()
+     */
+    @Override
+    public void resetFont() {
+        super.resetFont();
+        record(Graphics::resetFont);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setColor(com.github.mathiewz.slick.Color)
+     */
+    @Override
+    public void setColor(Color color) {
+        if (color == null) {
+            return;
+        }
+
+        Color col = new Color(color);
+        this.color = col;
+        record(g -> g.setColor(col));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#getColor()
+     */
+    @Override
+    public Color getColor() {
+        return new Color(color);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#drawLine(float, float, float, float)
+     */
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2) {
+        record(g -> g.drawLine(x1, y1, x2, y2));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#draw(com.github.mathiewz.slick.geom.Shape, com.github.mathiewz.slick.ShapeFill)
+     */
+    @Override
+    public void draw(Shape shape, ShapeFill fill) {
+        record(g -> g.draw(shape, fill));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#fill(com.github.mathiewz.slick.geom.Shape, com.github.mathiewz.slick.ShapeFill)
+     */
+    @Override
+    public void fill(Shape shape, ShapeFill fill) {
+        record(g -> g.fill(shape, fill));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#draw(com.github.mathiewz.slick.geom.Shape)
+     */
+    @Override
+    public void draw(Shape shape) {
+        record(g -> g.draw(shape));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#fill(com.github.mathiewz.slick.geom.Shape)
+     */
+    @Override
+    public void fill(Shape shape) {
+        record(g -> g.fill(shape));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#texture(com.github.mathiewz.slick.geom.Shape, com.github.mathiewz.slick.Image, float, float, boolean)
+     */
+    @Override
+    public void texture(Shape shape, Image image, float scaleX, float scaleY, boolean fit) {
+        record(g -> g.texture(shape, image, scaleX, scaleY, fit));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#texture(com.github.mathiewz.slick.geom.Shape, com.github.mathiewz.slick.Image, float, float, com.github.mathiewz.slick.ShapeFill)
+     */
+    @Override
+    public void texture(Shape shape, Image image, float scaleX, float scaleY, ShapeFill fill) {
+        record(g -> g.texture(shape, image, scaleX, scaleY, fill));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#clearClip()
+     */
+    @Override
+    public void clearClip() {
+        clip = null;
+        record(Graphics::clearClip);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setWorldClip(float, float, float, float)
+     */
+    @Override
+    public void setWorldClip(float x, float y, float width, float height) {
+        worldClip = new Rectangle(x, y, width, height);
+        record(g -> g.setWorldClip(x, y, width, height));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#clearWorldClip()
+     */
+    @Override
+    public void clearWorldClip() {
+        worldClip = null;
+        record(Graphics::clearWorldClip);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#getWorldClip()
+     */
+    @Override
+    public Rectangle getWorldClip() {
+        return worldClip;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setClip(int, int, int, int)
+     */
+    @Override
+    public void setClip(int x, int y, int width, int height) {
+        if (clip == null) {
+            clip = new Rectangle(x, y, width, height);
+        } else {
+            clip.setBounds(x, y, width, height);
+        }
+        record(g -> g.setClip(x, y, width, height));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#getClip()
+     */
+    @Override
+    public Rectangle getClip() {
+        return clip;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#fillRect(float, float, float, float, com.github.mathiewz.slick.Image, float, float)
+     */
+    @Override
+    public void fillRect(float x, float y, float width, float height, Image pattern, float offX, float offY) {
+        record(g -> g.fillRect(x, y, width, height, pattern, offX, offY));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#fillRect(float, float, float, float)
+     */
+    @Override
+    public void fillRect(float x1, float y1, float width, float height) {
+        record(g -> g.fillRect(x1, y1, width, height));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#drawArc(float, float, float, float, int, float, float)
+     */
+    @Override
+    public void drawArc(float x1, float y1, float width, float height, int segments, float start, float end) {
+        record(g -> g.drawArc(x1, y1, width, height, segments, start, end));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#fillArc(float, float, float, float, int, float, float)
+     */
+    @Override
+    public void fillArc(float x1, float y1, float width, float height, int segments, float start, float end) {
+        record(g -> g.fillArc(x1, y1, width, height, segments, start, end));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setLineWidth(float)
+     */
+    @Override
+    public void setLineWidth(float width) {
+        lineWidth = width;
+        record(g -> g.setLineWidth(width));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#getLineWidth()
+     */
+    @Override
+    public float getLineWidth() {
+        return lineWidth;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#resetLineWidth()
+     */
+    @Override
+    public void resetLineWidth() {
+        record(Graphics::resetLineWidth);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setAntiAlias(boolean)
+     */
+    @Override
+    public void setAntiAlias(boolean anti) {
+        antialias = anti;
+        record(g -> g.setAntiAlias(anti));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#isAntiAlias()
+     */
+    @Override
+    public boolean isAntiAlias() {
+        return antialias;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#drawString(java.lang.String, float, float)
+     */
+    @Override
+    public void drawString(String str, float x, float y) {
+        record(g -> g.drawString(str, x, y));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#drawImage(com.github.mathiewz.slick.Image, float, float, com.github.mathiewz.slick.Color)
+     */
+    @Override
+    public void drawImage(Image image, float x, float y, Color col) {
+        Color filter = copy(col);
+        recordImage(image, g -> g.drawImage(image, x, y, filter));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#drawAnimation(com.github.mathiewz.slick.Animation, float, float, com.github.mathiewz.slick.Color)
+     */
+    @Override
+    public void drawAnimation(Animation anim, float x, float y, Color col) {
+        // advance the animation here so replaying never touches it
+        Image frame = anim.advanceForDraw();
+        if (frame == null) {
+            return;
+        }
+        Color filter = copy(col);
+        recordImage(frame, g -> g.drawImage(frame, x, y, filter));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#drawImage(com.github.mathiewz.slick.Image, float, float, float, float, float, float, float, float)
+     */
+    @Override
+    public void drawImage(Image image, float x, float y, float x2, float y2, float srcx, float srcy, float srcx2, float srcy2) {
+        recordImage(image, g -> g.drawImage(image, x, y, x2, y2, srcx, srcy, srcx2, srcy2));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#drawImage(com.github.mathiewz.slick.Image, float, float, float, float, float, float, float, float, com.github.mathiewz.slick.Color)
+     */
+    @Override
+    public void drawImage(Image image, float x, float y, float x2, float y2, float srcx, float srcy, float srcx2, float srcy2, Color col) {
+        Color filter = copy(col);
+        recordImage(image, g -> g.drawImage(image, x, y, x2, y2, srcx, srcy, srcx2, srcy2, filter));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#copyArea(com.github.mathiewz.slick.Image, int, int)
+     */
+    @Override
+    public void copyArea(Image target, int x, int y) {
+        record(g -> g.copyArea(target, x, y));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#getPixel(int, int)
+     */
+    @Override
+    public Color getPixel(int x, int y) {
+        readBackUnsupported();
+        return null;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#getArea(int, int, int, int, java.nio.ByteBuffer)
+     */
+    @Override
+    public void getArea(int x, int y, int width, int height, ByteBuffer target) {
+        readBackUnsupported();
+    }
+
+    /**
+     * The read is recorded and started when the frame is replayed, so the future
+     * completes a frame or two after that.
+     *
+     * @see com.github.mathiewz.slick.Graphics#getAreaAsync(int, int, int, int)
+     */
+    @Override
+    public CompletableFuture<ByteBuffer> getAreaAsync(int x, int y, int width, int height) {
+        CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+        record(g -> g.getAreaAsync(x, y, width, height).whenComplete((pixels, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(pixels);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#drawGradientLine(float, float, float, float, float, float, float, float, float, float, float, float)
+     */
+    @Override
+    public void drawGradientLine(float x1, float y1, float red1, float green1, float blue1, float alpha1, float x2, float y2, float red2, float green2, float blue2, float alpha2) {
+        record(g -> g.drawGradientLine(x1, y1, red1, green1, blue1, alpha1, x2, y2, red2, green2, blue2, alpha2));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#drawGradientLine(float, float, com.github.mathiewz.slick.Color, float, float, com.github.mathiewz.slick.Color)
+     */
+    @Override
+    public void drawGradientLine(float x1, float y1, Color Color1, float x2, float y2, Color Color2) {
+        Color start = copy(Color1);
+        Color end = copy(Color2);
+        record(g -> g.drawGradientLine(x1, y1, start, x2, y2, end));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#pushTransform()
+     */
+    @Override
+    public void pushTransform() {
+        pushed++;
+        record(Graphics::pushTransform);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#popTransform()
+     */
+    @Override
+    public void popTransform() {
+        if (pushed == 0) {
+            throw new SlickException("Attempt to pop a transform that hasn't be pushed");
+        }
+        pushed--;
+        record(Graphics::popTransform);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setDeferred(boolean)
+     */
+    @Override
+    public void setDeferred(boolean deferred) {
+        this.deferred = deferred;
+        if (!deferred) {
+            Arrays.fill(preserved, false);
+        }
+        record(g -> g.setDeferred(deferred));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#isDeferred()
+     */
+    @Override
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setLayer(int)
+     */
+    @Override
+    public void setLayer(int layer) {
+        super.setLayer(layer);
+        record(g -> g.setLayer(layer));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setDepth(float)
+     */
+    @Override
+    public void setDepth(float depth) {
+        super.setDepth(depth);
+        record(g -> g.setDepth(depth));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#setPreserveOrder(int, boolean)
+     */
+    @Override
+    public void setPreserveOrder(int layer, boolean preserve) {
+        if (layer < 0 || layer >= RenderQueue.LAYERS) {
+            throw new IllegalArgumentException("Layer must be between 0 and " + (RenderQueue.LAYERS - 1) + ": " + layer);
+        }
+        if (!deferred) {
+            throw new SlickException("Draw order can only be configured in deferred mode - see setDeferred()");
+        }
+        preserved[layer] = preserve;
+        record(g -> g.setPreserveOrder(layer, preserve));
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.Graphics#isPreservingOrder(int)
+     */
+    @Override
+    public boolean isPreservingOrder(int layer) {
+        if (layer < 0 || layer >= RenderQueue.LAYERS) {
+            throw new IllegalArgumentException("Layer must be between 0 and " + (RenderQueue.LAYERS - 1) + ": " + layer);
+        }
+        return preserved[layer];
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.mathiewz.slick;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The queue of draw commands recorded by a graphics context in deferred mode. Each
+ * command carries a 64 bit sort key made up of, from most to least significant,
+ * the layer (8 bits), the drawing mode (4 bits), the texture ID (20 bits) and the
+ * depth (32 bits). Commands are sorted on the key before being submitted so that
+ * draws sharing blend state and texture end up next to each other.
+ *
+ * The sort is stable, so commands with equal keys are submitted in the order they
+ * were recorded. Layers that must keep their draw order record only the layer in
+ * the key, which keeps every command in the layer in its original order.
+ *
+ * @author mathiewz
+ */
+class RenderQueue {
+    /** The number of layers available */
+    static final int LAYERS = 256;
+    /** The shift placing the layer in the sort key */
+    private static final int LAYER_SHIFT = 56;
+    /** The shift placing the drawing mode in the sort key */
+    private static final int MODE_SHIFT = 52;
+    /** The shift placing the texture ID in the sort key */
+    private static final int TEXTURE_SHIFT = 32;
+    /** The mask applied to the drawing mode */
+    private static final long MODE_MASK = 0xF;
+    /** The mask applied to the texture ID */
+    private static final long TEXTURE_MASK = 0xFFFFF;
+    /** Orders commands on their sort key, treating the key as unsigned */
+    private static final Comparator<Command> KEY_ORDER = (a, b) -> Long.compareUnsigned(a.key, b.key);
+
+    /**
+     * A single recorded draw
+     */
+    static class Command {
+        /** The sort key of the command */
+        long key;
+        /** The drawing mode in place when the command was recorded */
+        int mode;
+        /** The colour in place when the command was recorded */
+        Color color;
+        /** The operation performing the draw */
+        Runnable action;
+    }
+
+    /** The commands recorded, reused between flushes */
+    private Command[] commands = new Command[64];
+    /** The number of commands recorded */
+    private int count;
+    /** True for each layer that must keep its draw order */
+    private final boolean[] ordered = new boolean[LAYERS];
+
+    /**
+     * Add a command to the queue
+     *
+     * @param layer
+     *            The layer the command is drawn on
+     * @param mode
+     *            The drawing mode to apply when drawing
+     * @param textureID
+     *            The ID of the texture the command draws with or 0 for none
+     * @param depth
+     *            The depth of the command within its layer, lower values are drawn first
+     * @param color
+     *            The colour to apply when drawing
+     * @param action
+     *            The operation performing the draw
+     */
+    void add(int layer, int mode, int textureID, float depth, Color color, Runnable action) {
+        if (count == commands.length) {
+            commands = Arrays.copyOf(commands, count * 2);
+        }
+        Command command = commands[count];
+        if (command == null) {
+            command = new Command();
+            commands[count] = command;
+        }
+        count++;
+
+        long key = (long) layer << LAYER_SHIFT;
+        if (!ordered[layer]) {
+            key |= (mode & MODE_MASK) << MODE_SHIFT;
+            key |= (textureID & TEXTURE_MASK) << TEXTURE_SHIFT;
+            key |= sortableDepth(depth);
+        }
+        command.key = key;
+        command.mode = mode;
+        command.color = color;
+        command.action = action;
+    }
+
+    /**
+     * Convert a depth into bits that sort in the same order as the value
+     *
+     * @param depth
+     *            The depth to convert
+     * @return The depth as 32 unsigned bits
+     */
+    private static long sortableDepth(float depth) {
+        int bits = Float.floatToIntBits(depth);
+        bits ^= bits >> 31 | 0x80000000;
+        return bits & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Indicate whether a layer must keep the order its commands are recorded in
+     *
+     * @param layer
+     *            The layer to configure
+     * @param preserve
+     *            True if commands on the layer must be drawn in the order recorded
+     */
+    void setPreserveOrder(int layer, boolean preserve) {
+        ordered[layer] = preserve;
+    }
+
+    /**
+     * Check if a layer keeps the order its commands are recorded in
+     *
+     * @param layer
+     *            The layer to check
+     * @return True if commands on the layer are drawn in the order recorded
+     */
+    boolean isPreservingOrder(int layer) {
+        return ordered[layer];
+    }
+
+    /**
+     * Check if there are any commands waiting to be submitted
+     *
+     * @return True if the queue is empty
+     */
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Get the number of commands waiting to be submitted
+     *
+     * @return The number of commands recorded
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Sort the recorded commands into submission order
+     */
+    void sort() {
+        Arrays.sort(commands, 0, count, KEY_ORDER);
+    }
+
+    /**
+     * Get a command in the queue
+     *
+     * @param index
+     *            The index of the command to retrieve
+     * @return The command at the given index
+     */
+    Command get(int index) {
+        return commands[index];
+    }
+
+    /**
+     * Remove all the recorded commands
+     */
+    void clear() {
+        for (int i = 0; i < count; i++) {
+            commands[i].color = null;
+            commands[i].action = null;
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,270 @@
+package com.github.mathiewz.slick;
+
+/**
+ * Statistics describing the work done to produce a frame. The renderers and fonts
+ * report into the single instance as they work and the game container moves on to
+ * a new frame at the start of each update and render. The values returned always
+ * describe the last complete frame so they're stable while the current one is
+ * being produced.
+ *
+ * @author mathiewz
+ */
+public class RenderStats {
+    /** The single instance the renderers report into */
+    private static final RenderStats stats = new RenderStats();
+
+    /** The number of draw calls made in the current frame */
+    private int drawCalls;
+    /** The number of vertices submitted in the current frame */
+    private int vertices;
+    /** The number of textures bound in the current frame */
+    private int textureBinds;
+    /** The number of vertex array flushes in the current frame */
+    private int flushes;
+    /** The number of strings drawn from a cached font display list in the current frame */
+    private int fontListHits;
+    /** The number of font display lists compiled in the current frame */
+    private int fontListMisses;
+    /** The time spent updating the game in the current frame */
+    private long updateTime;
+    /** The time spent rendering the game in the current frame */
+    private long renderTime;
+
+    /** The number of draw calls made in the last frame */
+    private int lastDrawCalls;
+    /** The number of vertices submitted in the last frame */
+    private int lastVertices;
+    /** The number of textures bound in the last frame */
+    private int lastTextureBinds;
+    /** The number of vertex array flushes in the last frame */
+    private int lastFlushes;
+    /** The number of strings drawn from a cached font display list in the last frame */
+    private int lastFontListHits;
+    /** The number of font display lists compiled in the last frame */
+    private int lastFontListMisses;
+    /** The time spent updating the game in the last frame */
+    private long lastUpdateTime;
+    /** The time spent rendering the game in the last frame */
+    private long lastRenderTime;
+
+    /** The number of requests to stop counting work that haven't been resumed */
+    private int suspended;
+
+    /**
+     * Get the statistics the renderers report into
+     *
+     * @return The single statistics instance
+     */
+    public static RenderStats get() {
+        return stats;
+    }
+
+    /**
+     * Complete the current frame, making its values available and starting
+     * to count again from zero
+     */
+    public void nextFrame() {
+        lastDrawCalls = drawCalls;
+        lastVertices = vertices;
+        lastTextureBinds = textureBinds;
+        lastFlushes = flushes;
+        lastFontListHits = fontListHits;
+        lastFontListMisses = fontListMisses;
+        lastUpdateTime = updateTime;
+        lastRenderTime = renderTime;
+
+        drawCalls = 0;
+        vertices = 0;
+        textureBinds = 0;
+        flushes = 0;
+        fontListHits = 0;
+        fontListMisses = 0;
+        updateTime = 0;
+        renderTime = 0;
+    }
+
+    /**
+     * Stop counting the work reported, for instance while geometry is compiled into a
+     * display list rather than drawn. Each call must be matched by a call to
+     * {@link #resume()}.
+     */
+    public void suspend() {
+        suspended++;
+    }
+
+    /**
+     * Start counting the work reported again once every call to {@link #suspend()}
+     * has been resumed
+     */
+    public void resume() {
+        if (suspended > 0) {
+            suspended--;
+        }
+    }
+
+    /**
+     * Check if the work reported is being counted
+     *
+     * @return True if the work reported is counted toward the current frame
+     */
+    public boolean isCounting() {
+        return suspended == 0;
+    }
+
+    /**
+     * Record a draw call
+     */
+    public void addDrawCall() {
+        if (suspended == 0) {
+            drawCalls++;
+        }
+    }
+
+    /**
+     * Record vertices being submitted
+     *
+     * @param count
+     *            The number of vertices submitted
+     */
+    public void addVertices(int count) {
+        if (suspended == 0) {
+            vertices += count;
+        }
+    }
+
+    /**
+     * Record a texture being bound
+     */
+    public void addTextureBind() {
+        if (suspended == 0) {
+            textureBinds++;
+        }
+    }
+
+    /**
+     * Record a vertex array being flushed to the card
+     */
+    public void addFlush() {
+        if (suspended == 0) {
+            flushes++;
+        }
+    }
+
+    /**
+     * Record a string being drawn from a cached font display list
+     */
+    public void addFontListHit() {
+        if (suspended == 0) {
+            fontListHits++;
+        }
+    }
+
+    /**
+     * Record a font display list being compiled
+     */
+    public void addFontListMiss() {
+        if (suspended == 0) {
+            fontListMisses++;
+        }
+    }
+
+    /**
+     * Record time spent updating the game
+     *
+     * @param nanos
+     *            The time spent in nanoseconds
+     */
+    public void addUpdateTime(long nanos) {
+        updateTime += nanos;
+    }
+
+    /**
+     * Record time spent rendering the game
+     *
+     * @param nanos
+     *            The time spent in nanoseconds
+     */
+    public void addRenderTime(long nanos) {
+        renderTime += nanos;
+    }
+
+    /**
+     * Get the number of draw calls made in the last frame
+     *
+     * @return The number of draw calls made
+     */
+    public int getDrawCalls() {
+        return lastDrawCalls;
+    }
+
+    /**
+     * Get the number of vertices submitted in the last frame
+     *
+     * @return The number of vertices submitted
+     */
+    public int getVertices() {
+        return lastVertices;
+    }
+
+    /**
+     * Get the number of textures bound in the last frame
+     *
+     * @return The number of textures bound
+     */
+    public int getTextureBinds() {
+        return lastTextureBinds;
+    }
+
+    /**
+     * Get the number of times the vertex array renderer flushed its batch in the last frame
+     *
+     * @return The number of vertex array flushes
+     */
+    public int getFlushes() {
+        return lastFlushes;
+    }
+
+    /**
+     * Get the number of strings drawn from a cached font display list in the last frame
+     *
+     * @return The number of font display list hits
+     */
+    public int getFontListHits() {
+        return lastFontListHits;
+    }
+
+    /**
+     * Get the number of font display lists compiled in the last frame
+     *
+     * @return The number of font display list misses
+     */
+    public int getFontListMisses() {
+        return lastFontListMisses;
+    }
+
+    /**
+     * Get the time spent updating the game in the last frame
+     *
+     * @return The time spent updating in nanoseconds
+     */
+    public long getUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    /**
+     * Get the time spent rendering the game in the last frame
+     *
+     * @return The time spent rendering in nanoseconds
+     */
+    public long getRenderTime() {
+        return lastRenderTime;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "[RenderStats drawCalls=" + lastDrawCalls + " vertices=" + lastVertices + " textureBinds=" + lastTextureBinds + " flushes=" + lastFlushes + " fontLists=" + lastFontListHits + "/" + lastFontListMisses + " update=" + lastUpdateTime + "ns render=" + lastRenderTime + "ns]";
+    }
+}
@@ -0,0 +1,404 @@
+package com.github.mathiewz.slick;
+
+import java.util.Arrays;
+
+import org.lwjgl.opengl.GL11;
+
+import com.github.mathiewz.slick.opengl.InternalTextureLoader;
+import com.github.mathiewz.slick.opengl.Texture;
+import com.github.mathiewz.slick.opengl.TextureImpl;
+import com.github.mathiewz.slick.opengl.renderer.Renderer;
+import com.github.mathiewz.slick.opengl.renderer.SGL;
+
+/**
+ * A batch of textured quads collected from any number of images. Quads are
+ * recorded between begin() and end() and nothing is sent to GL until end(),
+ * at which point they're sorted by drawing mode and texture so that each group
+ * is submitted as a single run of geometry. Used with the vertex array renderer
+ * each group becomes a single draw call.
+ *
+ * Note that sorting means quads using different textures are not guaranteed to
+ * be drawn in the order they were added. Quads sharing both texture and drawing
+ * mode keep their relative order.
+ *
+ * @author mathiewz
+ */
+public class SpriteBatch {
+    /** The default number of quads the batch can hold before growing */
+    private static final int DEFAULT_SIZE = 256;
+    /** The number of bits of the sort key holding the index of the quad */
+    private static final int INDEX_BITS = 24;
+    /** The maximum number of quads in a single batch, limited by the sort key */
+    private static final int MAX_QUADS = 1 << INDEX_BITS;
+    /** The mask extracting the quad index from a sort key */
+    private static final long INDEX_MASK = MAX_QUADS - 1;
+    /** The number of floats stored per quad for position and texture coordinates */
+    private static final int VERTEX_FLOATS = 16;
+    /** The number of floats stored per quad for colour */
+    private static final int COLOR_FLOATS = 4;
+
+    /** The renderer the batch is submitted to */
+    private final SGL gl;
+
+    /** The position and texture coordinates of each quad (x, y, u, v per corner) */
+    private float[] vertices;
+    /** The colour of each quad */
+    private float[] colors;
+    /** The texture used by each quad */
+    private Texture[] textures;
+    /** The drawing mode used by each quad */
+    private int[] modes;
+    /** The sort keys built at the end of the batch */
+    private long[] keys;
+    /** The number of quads recorded */
+    private int count;
+
+    /** True if we're between begin() and end() */
+    private boolean drawing;
+    /** The drawing mode applied to quads added from now on */
+    private int drawMode = Graphics.MODE_NORMAL;
+    /** The number of groups submitted since the last begin() */
+    private int flushCount;
+    /** The number of quads submitted since the last begin() */
+    private int quadCount;
+
+    /**
+     * Create a new sprite batch rendering through the current renderer
+     */
+    public SpriteBatch() {
+        this(Renderer.get());
+    }
+
+    /**
+     * Create a new sprite batch rendering through a specific renderer
+     *
+     * @param gl
+     *            The renderer to submit the batch to
+     */
+    public SpriteBatch(SGL gl) {
+        this.gl = gl;
+        allocate(DEFAULT_SIZE);
+    }
+
+    /**
+     * Allocate the storage for a given number of quads, keeping any recorded
+     *
+     * @param size
+     *            The number of quads to hold
+     */
+    private void allocate(int size) {
+        if (vertices == null) {
+            vertices = new float[size * VERTEX_FLOATS];
+            colors = new float[size * COLOR_FLOATS];
+            textures = new Texture[size];
+            modes = new int[size];
+            keys = new long[size];
+        } else {
+            vertices = Arrays.copyOf(vertices, size * VERTEX_FLOATS);
+            colors = Arrays.copyOf(colors, size * COLOR_FLOATS);
+            textures = Arrays.copyOf(textures, size);
+            modes = Arrays.copyOf(modes, size);
+            keys = Arrays.copyOf(keys, size);
+        }
+    }
+
+    /**
+     * Start recording a new batch
+     */
+    public void begin() {
+        if (drawing) {
+            throw new SlickException("Attempt to begin a sprite batch that is already in use - see end()");
+        }
+        drawing = true;
+        count = 0;
+        flushCount = 0;
+        quadCount = 0;
+    }
+
+    /**
+     * Sort and submit the recorded quads and stop recording
+     */
+    public void end() {
+        if (!drawing) {
+            throw new SlickException("Attempt to end a sprite batch that has not been started - see begin()");
+        }
+        flush();
+        drawing = false;
+    }
+
+    /**
+     * Check if the batch is currently recording
+     *
+     * @return True if we're between begin() and end()
+     */
+    public boolean isDrawing() {
+        return drawing;
+    }
+
+    /**
+     * Set the drawing mode applied to quads added from now on
+     *
+     * @param mode
+     *            The drawing mode, one of the Graphics.MODE_* constants
+     */
+    public void setDrawMode(int mode) {
+        drawMode = mode;
+    }
+
+    /**
+     * Get the drawing mode applied to quads being added
+     *
+     * @return The drawing mode, one of the Graphics.MODE_* constants
+     */
+    public int getDrawMode() {
+        return drawMode;
+    }
+
+    /**
+     * Get the number of groups submitted to the renderer since the last begin(). With
+     * the vertex array renderer this is the number of draw calls the batch produced.
+     *
+     * @return The number of groups submitted
+     */
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Get the number of quads submitted to the renderer since the last begin()
+     *
+     * @return The number of quads submitted
+     */
+    public int getQuadCount() {
+        return quadCount;
+    }
+
+    /**
+     * Get the number of quads waiting to be submitted
+     *
+     * @return The number of quads recorded but not yet submitted
+     */
+    public int getPendingCount() {
+        return count;
+    }
+
+    /**
+     * Add an image to the batch
+     *
+     * @param image
+     *            The image to draw
+     * @param x
+     *            The x location to draw the image at
+     * @param y
+     *            The y location to draw the image at
+     */
+    public void draw(Image image, float x, float y) {
+        draw(image, x, y, image.getWidth(), image.getHeight(), null);
+    }
+
+    /**
+     * Add an image to the batch
+     *
+     * @param image
+     *            The image to draw
+     * @param x
+     *            The x location to draw the image at
+     * @param y
+     *            The y location to draw the image at
+     * @param filter
+     *            The color to filter with when drawing
+     */
+    public void draw(Image image, float x, float y, Color filter) {
+        draw(image, x, y, image.getWidth(), image.getHeight(), filter);
+    }
+
+    /**
+     * Add an image to the batch
+     *
+     * @param image
+     *            The image to draw
+     * @param x
+     *            The x location to draw the image at
+     * @param y
+     *            The y location to draw the image at
+     * @param width
+     *            The width to render the image at
+     * @param height
+     *            The height to render the image at
+     */
+    public void draw(Image image, float x, float y, float width, float height) {
+        draw(image, x, y, width, height, null);
+    }
+
+    /**
+     * Add an image to the batch. The rotation, centre of rotation and alpha of
+     * the image are applied as they would be by Image.draw()
+     *
+     * @param image
+     *            The image to draw
+     * @param x
+     *            The x location to draw the image at
+     * @param y
+     *            The y location to draw the image at
+     * @param width
+     *            The width to render the image at
+     * @param height
+     *            The height to render the image at
+     * @param filter
+     *            The color to filter with when drawing or null for none
+     */
+    public void draw(Image image, float x, float y, float width, float height, Color filter) {
+        if (!drawing) {
+            throw new SlickException("Attempt to draw to a sprite batch that has not been started - see begin()");
+        }
+        if (count == MAX_QUADS) {
+            flush();
+        }
+        if (count == textures.length) {
+            allocate(Math.min(count * 2, MAX_QUADS));
+        }
+
+        float u = image.getTextureOffsetX();
+        float v = image.getTextureOffsetY();
+        float u2 = u + image.getTextureWidth();
+        float v2 = v + image.getTextureHeight();
+
+        int offset = count * VERTEX_FLOATS;
+        float angle = image.getRotation();
+        if (angle == 0) {
+            putCorner(offset, x, y, u, v);
+            putCorner(offset + 4, x, y + height, u, v2);
+            putCorner(offset + 8, x + width, y + height, u2, v2);
+            putCorner(offset + 12, x + width, y, u2, v);
+        } else {
+            float cx = x + image.getCenterOfRotationX();
+            float cy = y + image.getCenterOfRotationY();
+            double rad = Math.toRadians(angle);
+            float cos = (float) Math.cos(rad);
+            float sin = (float) Math.sin(rad);
+            putRotatedCorner(offset, x, y, u, v, cx, cy, cos, sin);
+            putRotatedCorner(offset + 4, x, y + height, u, v2, cx, cy, cos, sin);
+            putRotatedCorner(offset + 8, x + width, y + height, u2, v2, cx, cy, cos, sin);
+            putRotatedCorner(offset + 12, x + width, y, u2, v, cx, cy, cos, sin);
+        }
+
+        Color col = filter == null ? Color.white : filter;
+        int colOffset = count * COLOR_FLOATS;
+        colors[colOffset] = col.r;
+        colors[colOffset + 1] = col.g;
+        colors[colOffset + 2] = col.b;
+        colors[colOffset + 3] = col.a * image.getAlpha();
+
+        textures[count] = image.getTexture();
+        modes[count] = drawMode;
+        count++;
+    }
+
+    /**
+     * Store one corner of a quad
+     *
+     * @param offset
+     *            The offset into the vertex data
+     * @param x
+     *            The x coordinate of the corner
+     * @param y
+     *            The y coordinate of the corner
+     * @param u
+     *            The u texture coordinate of the corner
+     * @param v
+     *            The v texture coordinate of the corner
+     */
+    private void putCorner(int offset, float x, float y, float u, float v) {
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = u;
+        vertices[offset + 3] = v;
+    }
+
+    /**
+     * Store one corner of a quad rotated about a centre point
+     *
+     * @param offset
+     *            The offset into the vertex data
+     * @param x
+     *            The x coordinate of the corner before rotation
+     * @param y
+     *            The y coordinate of the corner before rotation
+     * @param u
+     *            The u texture coordinate of the corner
+     * @param v
+     *            The v texture coordinate of the corner
+     * @param cx
+     *            The x coordinate of the centre of rotation
+     * @param cy
+     *            The y coordinate of the centre of rotation
+     * @param cos
+     *            The cosine of the rotation angle
+     * @param sin
+     *            The sine of the rotation angle
+     */
+    private void putRotatedCorner(int offset, float x, float y, float u, float v, float cx, float cy, float cos, float sin) {
+        float dx = x - cx;
+        float dy = y - cy;
+        putCorner(offset, cx + dx * cos - dy * sin, cy + dx * sin + dy * cos, u, v);
+    }
+
+    /**
+     * Sort and submit the quads recorded so far. The batch remains open so more
+     * quads can be added afterwards.
+     */
+    public void flush() {
+        if (count == 0) {
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            keys[i] = (long) modes[i] << 56 | (textures[i].getTextureID() & 0xFFFFFFFFL) << INDEX_BITS | i;
+        }
+        Arrays.sort(keys, 0, count);
+
+        gl.glEnable(GL11.GL_TEXTURE_2D);
+        int lastMode = -1;
+        Texture lastTexture = null;
+        boolean open = false;
+        for (int i = 0; i < count; i++) {
+            int quad = (int) (keys[i] & INDEX_MASK);
+            if (modes[quad] != lastMode || textures[quad] != lastTexture) {
+                if (open) {
+                    gl.glEnd();
+                }
+                if (modes[quad] != lastMode) {
+                    lastMode = modes[quad];
+                    Graphics.applyDrawMode(gl, lastMode);
+                }
+                lastTexture = textures[quad];
+                // uploads the texture again if it's been evicted
+                InternalTextureLoader.get().bound(lastTexture);
+                gl.glBindTexture(GL11.GL_TEXTURE_2D, lastTexture.getTextureID());
+                gl.glBegin(GL11.GL_QUADS);
+                open = true;
+                flushCount++;
+            }
+
+            int colOffset = quad * COLOR_FLOATS;
+            gl.glColor4f(colors[colOffset], colors[colOffset + 1], colors[colOffset + 2], colors[colOffset + 3]);
+            int offset = quad * VERTEX_FLOATS;
+            for (int c = 0; c < 4; c++) {
+                gl.glTexCoord2f(vertices[offset + 2], vertices[offset + 3]);
+                gl.glVertex3f(vertices[offset], vertices[offset + 1], 0);
+                offset += 4;
+            }
+        }
+        gl.glEnd();
+
+        if (lastMode != Graphics.MODE_NORMAL) {
+            Graphics.applyDrawMode(gl, Graphics.MODE_NORMAL);
+        }
+        // we've changed the binding behind the texture cache's back
+        TextureImpl.unbind();
+
+        quadCount += count;
+        Arrays.fill(textures, 0, count, null);
+        count = 0;
+    }
+}
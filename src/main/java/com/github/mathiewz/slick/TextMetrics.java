@@ -0,0 +1,69 @@
+package com.github.mathiewz.slick;
+
+/**
+ * The measurements of a piece of text drawn with a font
+ *
+ * @author mathiewz
+ */
+public class TextMetrics {
+    /** The width of the text as drawn */
+    private final int width;
+    /** The width the text occupies on a line with other text */
+    private final int logicalWidth;
+    /** The height of the text */
+    private final int height;
+
+    /**
+     * Create a new set of measurements
+     *
+     * @param width
+     *            The width of the text as drawn
+     * @param logicalWidth
+     *            The width the text occupies on a line with other text
+     * @param height
+     *            The height of the text
+     */
+    public TextMetrics(int width, int logicalWidth, int height) {
+        this.width = width;
+        this.logicalWidth = logicalWidth;
+        this.height = height;
+    }
+
+    /**
+     * Get the width of the text as drawn
+     *
+     * @return The width of the text
+     * @see Font#getWidth(String)
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the width the text occupies on a line with other text
+     *
+     * @return The logical width of the text
+     * @see Font#getLogicalWidth(String)
+     */
+    public int getLogicalWidth() {
+        return logicalWidth;
+    }
+
+    /**
+     * Get the height of the text
+     *
+     * @return The height of the text
+     * @see Font#getHeight(String)
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "[TextMetrics width=" + width + " logicalWidth=" + logicalWidth + " height=" + height + "]";
+    }
+}
@@ -0,0 +1,257 @@
+package com.github.mathiewz.slick;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of text measurements shared between all fonts, keyed on the font and
+ * the text measured. Layout code tends to measure the same strings over and over, so
+ * holding on to the results saves walking the glyphs of the text each time.
+ *
+ * Lookups are made with a reusable key over a range of a character sequence, so a hit
+ * allocates nothing. Only a miss copies the text into a string to measure and keep.
+ * Once the cache is full the least recently used entry is dropped.
+ *
+ * @author mathiewz
+ */
+public class TextMetricsCache {
+    /** The default number of measurements held */
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    /** The single instance of the cache */
+    private static final TextMetricsCache cache = new TextMetricsCache();
+
+    /** The measurements held, least recently used first */
+    private final LinkedHashMap<Key, TextMetrics> entries = new LinkedHashMap<Key, TextMetrics>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, TextMetrics> eldest) {
+            return size() > maxSize;
+        }
+    };
+    /** The key reused to look up measurements */
+    private final Key probe = new Key();
+    /** The most measurements held */
+    private int maxSize = DEFAULT_MAX_SIZE;
+    /** The number of lookups answered from the cache */
+    private long hits;
+    /** The number of lookups that had to measure the text */
+    private long misses;
+
+    /**
+     * Get the single instance of the cache
+     *
+     * @return The single instance of the cache
+     */
+    public static TextMetricsCache get() {
+        return cache;
+    }
+
+    /**
+     * Get the measurements of a range of text
+     *
+     * @param font
+     *            The font the text is drawn with
+     * @param text
+     *            The text holding the range to measure
+     * @param start
+     *            The index of the first character to measure
+     * @param end
+     *            The index after the last character to measure
+     * @return The measurements of the text
+     */
+    public synchronized TextMetrics measure(Font font, CharSequence text, int start, int end) {
+        if (start < 0 || end > text.length() || start > end) {
+            throw new IndexOutOfBoundsException("Invalid range " + start + " to " + end + " of text of length " + text.length());
+        }
+
+        probe.set(font, text, start, end);
+        TextMetrics metrics = entries.get(probe);
+        if (metrics != null) {
+            hits++;
+            probe.clear();
+            return metrics;
+        }
+        misses++;
+        probe.clear();
+
+        String key = text.subSequence(start, end).toString();
+        metrics = new TextMetrics(font.getWidth(key), font.getLogicalWidth(key), font.getHeight(key));
+        Key stored = new Key();
+        stored.set(font, key, 0, key.length());
+        entries.put(stored, metrics);
+        return metrics;
+    }
+
+    /**
+     * Remove the measurements made with a font, for instance once it's changed in a way
+     * that affects the size of its text
+     *
+     * @param font
+     *            The font to remove the measurements of
+     */
+    public synchronized void invalidate(Font font) {
+        for (Iterator<Key> keys = entries.keySet().iterator(); keys.hasNext();) {
+            if (keys.next().font == font) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all the measurements held
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Set the most measurements held before the least recently used are dropped
+     *
+     * @param maxSize
+     *            The most measurements held
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        Iterator<Key> keys = entries.keySet().iterator();
+        while (entries.size() > maxSize) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Get the most measurements held before the least recently used are dropped
+     *
+     * @return The most measurements held
+     */
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get the number of measurements held
+     *
+     * @return The number of measurements held
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of lookups answered from the cache
+     *
+     * @return The number of hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that had to measure the text
+     *
+     * @return The number of misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Get the fraction of lookups answered from the cache
+     *
+     * @return The hit rate between 0 and 1, or 0 if there have been no lookups
+     */
+    public synchronized float getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (float) hits / lookups;
+    }
+
+    /**
+     * Reset the hit and miss counts
+     */
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * A key identifying a range of text measured with a font
+     */
+    private static class Key {
+        /** The font the text is drawn with */
+        private Font font;
+        /** The text holding the range */
+        private CharSequence text;
+        /** The index of the first character of the range */
+        private int start;
+        /** The index after the last character of the range */
+        private int end;
+        /** The hash of the font and the characters of the range */
+        private int hash;
+
+        /**
+         * Point the key at a range of text
+         *
+         * @param font
+         *            The font the text is drawn with
+         * @param text
+         *            The text holding the range
+         * @param start
+         *            The index of the first character of the range
+         * @param end
+         *            The index after the last character of the range
+         */
+        void set(Font font, CharSequence text, int start, int end) {
+            this.font = font;
+            this.text = text;
+            this.start = start;
+            this.end = end;
+
+            int h = System.identityHashCode(font);
+            for (int i = start; i < end; i++) {
+                h = 31 * h + text.charAt(i);
+            }
+            hash = h;
+        }
+
+        /**
+         * Release the references held by the key
+         */
+        void clear() {
+            font = null;
+            text = null;
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            int length = end - start;
+            if (hash != other.hash || font != other.font || length != other.end - other.start) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (text.charAt(start + i) != other.text.charAt(other.start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
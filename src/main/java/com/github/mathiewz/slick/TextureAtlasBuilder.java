@@ -0,0 +1,480 @@
+package com.github.mathiewz.slick;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.mathiewz.slick.opengl.ImageData;
+import com.github.mathiewz.slick.opengl.ImageDataFactory;
+import com.github.mathiewz.slick.opengl.LoadableImageData;
+import com.github.mathiewz.slick.util.Log;
+import com.github.mathiewz.slick.util.ResourceLoader;
+
+/**
+ * Packs many separate images into a small number of shared textures at load time
+ * so that drawing them doesn't require a texture switch per sprite. Images are
+ * added by reference or as image data, packed into pages with a skyline packer
+ * and handed back as sub-images of the page they ended up on.
+ *
+ * Expected usage is:
+ * <code>
+ * TextureAtlasBuilder builder = new TextureAtlasBuilder(1024, 1024);
+ * builder.add("res/player.png");
+ * builder.add("res/enemy.png");
+ * builder.build();
+ * Image player = builder.getImage("res/player.png");
+ * </code>
+ *
+ * Packing only touches the image data, so pack() can be used without a GL
+ * context. The textures are created by build().
+ *
+ * @author mathiewz
+ */
+public class TextureAtlasBuilder {
+    /** The default width and height of an atlas page */
+    public static final int DEFAULT_PAGE_SIZE = 1024;
+
+    /** The width of each page */
+    private final int pageWidth;
+    /** The height of each page */
+    private final int pageHeight;
+    /** The number of transparent pixels left between packed images */
+    private int padding = 1;
+    /** The filter used when creating the page images */
+    private int filter = Image.FILTER_NEAREST;
+
+    /** The image data added, by name, in the order added */
+    private final Map<String, ImageData> sources = new LinkedHashMap<>();
+    /** The placement of each image after packing, by name */
+    private final Map<String, Region> regions = new HashMap<>();
+    /** The pages produced by the last pack */
+    private final List<ImageBuffer> pages = new ArrayList<>();
+    /** The images produced by the last build, by name */
+    private final Map<String, Image> images = new HashMap<>();
+    /** True if the images added have been packed */
+    private boolean packed;
+
+    /**
+     * The location of a packed image
+     */
+    public static class Region {
+        /** The index of the page the image was packed into */
+        private final int page;
+        /** The x position of the image on the page */
+        private final int x;
+        /** The y position of the image on the page */
+        private final int y;
+        /** The width of the image */
+        private final int width;
+        /** The height of the image */
+        private final int height;
+
+        /**
+         * Create a new region
+         *
+         * @param page
+         *            The index of the page the image was packed into
+         * @param x
+         *            The x position of the image on the page
+         * @param y
+         *            The y position of the image on the page
+         * @param width
+         *            The width of the image
+         * @param height
+         *            The height of the image
+         */
+        Region(int page, int x, int y, int width, int height) {
+            this.page = page;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * Get the index of the page the image was packed into
+         *
+         * @return The index of the page
+         */
+        public int getPage() {
+            return page;
+        }
+
+        /**
+         * Get the x position of the image on the page
+         *
+         * @return The x position of the image
+         */
+        public int getX() {
+            return x;
+        }
+
+        /**
+         * Get the y position of the image on the page
+         *
+         * @return The y position of the image
+         */
+        public int getY() {
+            return y;
+        }
+
+        /**
+         * Get the width of the image
+         *
+         * @return The width of the image
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * Get the height of the image
+         *
+         * @return The height of the image
+         */
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    /**
+     * A segment of the skyline, the top edge of the space used on a page
+     */
+    private static class Segment {
+        /** The x position of the start of the segment */
+        private int x;
+        /** The height of the skyline along the segment */
+        private int y;
+        /** The width of the segment */
+        private int width;
+
+        /**
+         * Create a new segment
+         *
+         * @param x
+         *            The x position of the start of the segment
+         * @param y
+         *            The height of the skyline along the segment
+         * @param width
+         *            The width of the segment
+         */
+        Segment(int x, int y, int width) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+        }
+    }
+
+    /**
+     * Create a new builder producing pages of the default size
+     */
+    public TextureAtlasBuilder() {
+        this(DEFAULT_PAGE_SIZE, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Create a new builder
+     *
+     * @param pageWidth
+     *            The width of each atlas page, ideally a power of two
+     * @param pageHeight
+     *            The height of each atlas page, ideally a power of two
+     */
+    public TextureAtlasBuilder(int pageWidth, int pageHeight) {
+        if (pageWidth <= 0 || pageHeight <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageWidth + "x" + pageHeight);
+        }
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+    }
+
+    /**
+     * Set the number of transparent pixels left between packed images to stop
+     * neighbours bleeding into each other when filtered. The default is 1.
+     *
+     * @param padding
+     *            The number of pixels between images
+     */
+    public void setPadding(int padding) {
+        if (padding < 0) {
+            throw new IllegalArgumentException("Padding can't be negative: " + padding);
+        }
+        this.padding = padding;
+        packed = false;
+    }
+
+    /**
+     * Set the filter used when scaling the atlas images
+     *
+     * @param filter
+     *            The filter, either Image.FILTER_NEAREST or Image.FILTER_LINEAR
+     */
+    public void setFilter(int filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Add an image to the atlas, loading it from a resource. The image is
+     * retrieved from the atlas using the reference as its name.
+     *
+     * @param ref
+     *            The reference to the image to load
+     */
+    public void add(String ref) {
+        LoadableImageData data = ImageDataFactory.getImageDataFor(ref);
+        try (InputStream in = ResourceLoader.getResourceAsStream(ref)) {
+            data.loadImage(in, false, true, null);
+        } catch (IOException e) {
+            Log.error(e);
+            throw new SlickException("Failed to load image for atlas: " + ref, e);
+        }
+        add(ref, data);
+    }
+
+    /**
+     * Add image data to the atlas
+     *
+     * @param name
+     *            The name the image is retrieved from the atlas with
+     * @param data
+     *            The image data to pack, 24 or 32 bit
+     */
+    public void add(String name, ImageData data) {
+        if (sources.containsKey(name)) {
+            throw new IllegalArgumentException("An image named " + name + " has already been added");
+        }
+        if (data.getDepth() != 24 && data.getDepth() != 32) {
+            throw new SlickException("Only 24 and 32 bit images can be added to an atlas: " + name);
+        }
+        if (data.getWidth() + padding > pageWidth || data.getHeight() + padding > pageHeight) {
+            throw new SlickException("Image " + name + " (" + data.getWidth() + "x" + data.getHeight() + ") doesn't fit on a " + pageWidth + "x" + pageHeight + " page");
+        }
+        sources.put(name, data);
+        packed = false;
+    }
+
+    /**
+     * Pack the images added so far into pages. This works purely on the image data
+     * and doesn't need a GL context.
+     *
+     * @return The number of pages the images were packed into
+     */
+    public int pack() {
+        regions.clear();
+        pages.clear();
+
+        // packing the tallest first keeps the skyline flat
+        List<String> names = new ArrayList<>(sources.keySet());
+        names.sort(Comparator.comparingInt((String name) -> sources.get(name).getHeight()).reversed().thenComparing(Comparator.comparingInt((String name) -> sources.get(name).getWidth()).reversed()));
+
+        List<List<Segment>> skylines = new ArrayList<>();
+        for (String name : names) {
+            ImageData data = sources.get(name);
+            int width = data.getWidth() + padding;
+            int height = data.getHeight() + padding;
+
+            Region region = null;
+            for (int page = 0; page < skylines.size() && region == null; page++) {
+                region = place(skylines.get(page), page, width, height);
+            }
+            if (region == null) {
+                List<Segment> skyline = new ArrayList<>();
+                skyline.add(new Segment(0, 0, pageWidth));
+                skylines.add(skyline);
+                pages.add(new ImageBuffer(pageWidth, pageHeight));
+                region = place(skyline, skylines.size() - 1, width, height);
+            }
+
+            region = new Region(region.page, region.x, region.y, data.getWidth(), data.getHeight());
+            regions.put(name, region);
+            copy(data, pages.get(region.page), region.x, region.y);
+        }
+
+        packed = true;
+        return pages.size();
+    }
+
+    /**
+     * Find the lowest position on a page's skyline a rectangle fits at and claim it
+     *
+     * @param skyline
+     *            The skyline of the page
+     * @param page
+     *            The index of the page
+     * @param width
+     *            The width of the rectangle
+     * @param height
+     *            The height of the rectangle
+     * @return The region claimed or null if the rectangle doesn't fit on the page
+     */
+    private Region place(List<Segment> skyline, int page, int width, int height) {
+        int best = -1;
+        int bestY = Integer.MAX_VALUE;
+        int bestWidth = Integer.MAX_VALUE;
+
+        for (int i = 0; i < skyline.size(); i++) {
+            Segment start = skyline.get(i);
+            if (start.x + width > pageWidth) {
+                break;
+            }
+
+            int y = 0;
+            int remaining = width;
+            for (int j = i; remaining > 0; j++) {
+                Segment segment = skyline.get(j);
+                y = Math.max(y, segment.y);
+                remaining -= segment.width;
+            }
+
+            if (y + height <= pageHeight && (y < bestY || y == bestY && start.width < bestWidth)) {
+                best = i;
+                bestY = y;
+                bestWidth = start.width;
+            }
+        }
+
+        if (best == -1) {
+            return null;
+        }
+
+        int x = skyline.get(best).x;
+        skyline.add(best, new Segment(x, bestY + height, width));
+
+        // trim the segments now covered by the new one
+        for (int i = best + 1; i < skyline.size(); i++) {
+            Segment segment = skyline.get(i);
+            int overlap = x + width - segment.x;
+            if (overlap <= 0) {
+                break;
+            }
+            if (overlap < segment.width) {
+                segment.x += overlap;
+                segment.width -= overlap;
+                break;
+            }
+            skyline.remove(i);
+            i--;
+        }
+
+        // merge neighbours of the same height
+        for (int i = 0; i < skyline.size() - 1; i++) {
+            Segment segment = skyline.get(i);
+            Segment next = skyline.get(i + 1);
+            if (segment.y == next.y) {
+                segment.width += next.width;
+                skyline.remove(i + 1);
+                i--;
+            }
+        }
+
+        return new Region(page, x, bestY, width, height);
+    }
+
+    /**
+     * Copy image data onto a page
+     *
+     * @param data
+     *            The image data to copy
+     * @param page
+     *            The page to copy on to
+     * @param x
+     *            The x position to copy to
+     * @param y
+     *            The y position to copy to
+     */
+    private static void copy(ImageData data, ImageBuffer page, int x, int y) {
+        ByteBuffer pixels = data.getImageBufferData();
+        int bpp = data.getDepth() / 8;
+        int srcStride = data.getTexWidth() * bpp;
+        byte[] target = page.getRGBA();
+        int dstStride = page.getTexWidth() * 4;
+
+        for (int row = 0; row < data.getHeight(); row++) {
+            int src = row * srcStride;
+            int dst = (y + row) * dstStride + x * 4;
+            for (int col = 0; col < data.getWidth(); col++) {
+                target[dst] = pixels.get(src);
+                target[dst + 1] = pixels.get(src + 1);
+                target[dst + 2] = pixels.get(src + 2);
+                target[dst + 3] = bpp == 4 ? pixels.get(src + 3) : (byte) 255;
+                src += bpp;
+                dst += 4;
+            }
+        }
+    }
+
+    /**
+     * Pack the images if needed and create the atlas textures and the images
+     * referencing them. Requires a GL context.
+     */
+    public void build() {
+        if (!packed) {
+            pack();
+        }
+
+        List<Image> pageImages = new ArrayList<>();
+        for (ImageBuffer page : pages) {
+            pageImages.add(page.getImage(filter));
+        }
+
+        images.clear();
+        for (Map.Entry<String, Region> entry : regions.entrySet()) {
+            Region region = entry.getValue();
+            images.put(entry.getKey(), pageImages.get(region.page).getSubImage(region.x, region.y, region.width, region.height));
+        }
+    }
+
+    /**
+     * Get an image from the built atlas
+     *
+     * @param name
+     *            The name the image was added with
+     * @return The image or null if no image was added with the given name
+     */
+    public Image getImage(String name) {
+        if (images.isEmpty() && !sources.isEmpty()) {
+            throw new SlickException("The atlas has not been built - see build()");
+        }
+        return images.get(name);
+    }
+
+    /**
+     * Get where an image was packed
+     *
+     * @param name
+     *            The name the image was added with
+     * @return The location of the image or null if no image was added with the given name
+     */
+    public Region getRegion(String name) {
+        if (!packed) {
+            pack();
+        }
+        return regions.get(name);
+    }
+
+    /**
+     * Get the number of pages produced by the last pack
+     *
+     * @return The number of pages
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Get the pixel data of a page produced by the last pack
+     *
+     * @param index
+     *            The index of the page
+     * @return The pixel data of the page
+     */
+    public ImageBuffer getPage(int index) {
+        return pages.get(index);
+    }
+}
@@ -6,9 +6,13 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 
 import com.github.mathiewz.slick.opengl.GLUtils;
@@ -20,6 +24,13 @@ import com.github.mathiewz.slick.util.BufferedImageUtil;
 /**
  * A TrueType font implementation for Slick
  *
+ * Characters 0-255 and any additional characters given are drawn onto the first page of
+ * glyphs when the font is created. Any other character is added the first time it's drawn,
+ * onto the space left on the last page or onto a new page once that's full.
+ *
+ * Text can be measured from any thread, for instance by a game updating alongside the
+ * rendering, but it's only drawn on the thread owning the GL context.
+ *
  * @author James Chambers (Jimmy)
  * @author Jeremy Adams (elias4444)
  * @author Kevin Glass (kevglass)
@@ -33,7 +44,7 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
     private final IntObject[] charArray = new IntObject[256];
     
     /** Map of user defined font characters (Character <-> IntObject) */
-    private final Map<Character, IntObject> customChars = new HashMap<>();
+    private final Map<Character, IntObject> customChars = new ConcurrentHashMap<>();
     
     /** Boolean flag on whether AntiAliasing is enabled or not */
     private final boolean antiAlias;
@@ -44,8 +55,20 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
     /** Font's height */
     private int fontHeight = 0;
     
-    /** Texture used to cache the font 0-255 characters */
-    private Texture fontTexture;
+    /** Textures holding the glyphs, the first with the 0-255 and additional characters */
+    private final List<Texture> pages = new ArrayList<>();
+    
+    /** The x position the next glyph is placed at on the last page */
+    private int positionX;
+    
+    /** The y position of the row the next glyph is placed on on the last page */
+    private int positionY;
+    
+    /** The height of the tallest glyph on the current row of the last page */
+    private int rowHeight;
+    
+    /** The buffer glyphs are copied into to be uploaded to their page */
+    private ByteBuffer scratch;
     
     /** Default font texture width */
     private int textureWidth = 512;
@@ -57,7 +80,7 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
     private final java.awt.Font font;
     
     /** The font metrics for our Java AWT font */
-    private FontMetrics fontMetrics;
+    private final FontMetrics fontMetrics;
     
     /**
      * This is a special internal class that holds our necessary information for
@@ -76,6 +99,9 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
         
         /** Character's stored y position */
         public int storedY;
+        
+        /** The index of the page the character is stored on, or -1 if it hasn't been drawn yet. Set once the position is stored. */
+        public volatile int page = -1;
     }
     
     /**
@@ -97,6 +123,14 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
         fontSize = font.getSize();
         this.antiAlias = antiAlias;
         
+        Graphics2D g = (Graphics2D) new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).getGraphics();
+        if (antiAlias) {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+        g.setFont(font);
+        fontMetrics = g.getFontMetrics();
+        g.dispose();
+        
         createSet(additionalChars);
     }
     
@@ -123,14 +157,6 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
      * @return A BufferedImage containing the character
      */
     private BufferedImage getFontImage(char ch) {
-        // Create a temporary image to extract the character's size
-        BufferedImage tempfontImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = (Graphics2D) tempfontImage.getGraphics();
-        if (antiAlias == true) {
-            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        }
-        g.setFont(font);
-        fontMetrics = g.getFontMetrics();
         int charwidth = fontMetrics.charWidth(ch);
         
         if (charwidth <= 0) {
@@ -177,16 +203,9 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
         
         try {
             
-            BufferedImage imgTemp = new BufferedImage(textureWidth, textureHeight, BufferedImage.TYPE_INT_ARGB);
+            BufferedImage imgTemp = createPageImage();
             Graphics2D g = (Graphics2D) imgTemp.getGraphics();
             
-            g.setColor(new Color(255, 255, 255, 1));
-            g.fillRect(0, 0, textureWidth, textureHeight);
-            
-            int rowHeight = 0;
-            int positionX = 0;
-            int positionY = 0;
-            
             int customCharsLength = customCharsArray != null ? customCharsArray.length : 0;
             
             for (int i = 0; i < 256 + customCharsLength; i++) {
@@ -209,6 +228,7 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
                 
                 newIntObject.storedX = positionX;
                 newIntObject.storedY = positionY;
+                newIntObject.page = 0;
                 
                 if (newIntObject.height > fontHeight) {
                     fontHeight = newIntObject.height;
@@ -226,13 +246,13 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
                 if (i < 256) { // standard characters
                     charArray[i] = newIntObject;
                 } else { // custom characters
-                    customChars.put(new Character(ch), newIntObject);
+                    customChars.put(ch, newIntObject);
                 }
                 
                 fontImage = null;
             }
             
-            fontTexture = BufferedImageUtil.getTexture(font.toString(), imgTemp);
+            pages.add(BufferedImageUtil.getTexture(font.toString(), imgTemp));
             
         } catch (IOException e) {
             System.err.println("Failed to create font.");
@@ -240,6 +260,103 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
         }
     }
     
+    /**
+     * Create an empty image the size of a page of glyphs
+     *
+     * @return The image to draw glyphs onto
+     */
+    private BufferedImage createPageImage() {
+        BufferedImage image = new BufferedImage(textureWidth, textureHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = (Graphics2D) image.getGraphics();
+        
+        g.setColor(new Color(255, 255, 255, 1));
+        g.fillRect(0, 0, textureWidth, textureHeight);
+        g.dispose();
+        
+        return image;
+    }
+    
+    /**
+     * Get the information about a character, measuring it if it hasn't been seen before.
+     * The character isn't added to a page until it's drawn. Every character is as high as
+     * the line, so measuring one never changes the height of the font.
+     *
+     * @param ch
+     *            The character to get the information for
+     * @return The information about the character
+     */
+    private IntObject getIntObject(char ch) {
+        if (ch < 256) {
+            return charArray[ch];
+        }
+        
+        return customChars.computeIfAbsent(ch, key -> {
+            IntObject intObject = new IntObject();
+            intObject.width = Math.max(1, fontMetrics.charWidth(key));
+            intObject.height = fontMetrics.getHeight() > 0 ? fontMetrics.getHeight() : fontSize;
+            return intObject;
+        });
+    }
+    
+    /**
+     * Draw a character onto the last page of glyphs, starting a new page if it's full.
+     * Only called on the thread owning the GL context.
+     *
+     * @param ch
+     *            The character to add
+     * @param intObject
+     *            The information about the character, updated with where it's stored
+     */
+    private void addGlyph(char ch, IntObject intObject) {
+        BufferedImage fontImage = getFontImage(ch);
+        int width = fontImage.getWidth();
+        int height = fontImage.getHeight();
+        
+        if (positionX + width >= textureWidth) {
+            positionX = 0;
+            positionY += rowHeight;
+            rowHeight = 0;
+        }
+        if (pages.isEmpty() || positionY + height > textureHeight) {
+            try {
+                pages.add(BufferedImageUtil.getTexture(font.toString() + " page " + pages.size(), createPageImage()));
+            } catch (IOException e) {
+                throw new SlickException("Failed to create page of glyphs for font: " + font, e);
+            }
+            positionX = 0;
+            positionY = 0;
+            rowHeight = 0;
+        }
+        
+        int[] pixels = fontImage.getRGB(0, 0, width, height, null, 0, width);
+        if (scratch == null || scratch.capacity() < pixels.length * 4) {
+            scratch = BufferUtils.createByteBuffer(pixels.length * 4);
+        }
+        scratch.clear();
+        for (int pixel : pixels) {
+            int alpha = pixel >>> 24;
+            if (alpha == 0) {
+                // match the background of the page
+                scratch.put((byte) 255).put((byte) 255).put((byte) 255).put((byte) 1);
+            } else {
+                scratch.put((byte) (pixel >> 16)).put((byte) (pixel >> 8)).put((byte) pixel).put((byte) alpha);
+            }
+        }
+        scratch.flip();
+        
+        pages.get(pages.size() - 1).bind();
+        GL.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, positionX, positionY, width, height, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, scratch);
+        
+        intObject.storedX = positionX;
+        intObject.storedY = positionY;
+        intObject.page = pages.size() - 1;
+        
+        positionX += width;
+        if (height > rowHeight) {
+            rowHeight = height;
+        }
+    }
+    
     /**
      * Draw a textured quad
      *
@@ -292,14 +409,8 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
     public int getWidth(String whatchars) {
         int totalwidth = 0;
         IntObject intObject = null;
-        int currentChar = 0;
         for (int i = 0; i < whatchars.length(); i++) {
-            currentChar = whatchars.charAt(i);
-            if (currentChar < 256) {
-                intObject = charArray[currentChar];
-            } else {
-                intObject = customChars.get(new Character((char) currentChar));
-            }
+            intObject = getIntObject(whatchars.charAt(i));
             
             if (intObject != null) {
                 totalwidth += intObject.width;
@@ -370,31 +481,41 @@ public class TrueTypeFont implements com.github.mathiewz.slick.Font {
     @Override
     public void drawString(float x, float y, String whatchars, com.github.mathiewz.slick.Color color, int startIndex, int endIndex) {
         color.bind();
-        fontTexture.bind();
-        
-        IntObject intObject = null;
-        int charCurrent;
         
-        GL.glBegin(GL11.GL_QUADS);
+        int last = Math.min(endIndex, whatchars.length() - 1);
         
-        int totalwidth = 0;
-        for (int i = 0; i < whatchars.length(); i++) {
-            charCurrent = whatchars.charAt(i);
-            if (charCurrent < 256) {
-                intObject = charArray[charCurrent];
-            } else {
-                intObject = customChars.get(new Character((char) charCurrent));
-            }
-            
+        // add any new glyphs before drawing, and find the pages the glyphs are on
+        int firstPage = Integer.MAX_VALUE;
+        int lastPage = -1;
+        for (int i = Math.max(0, startIndex); i <= last; i++) {
+            IntObject intObject = getIntObject(whatchars.charAt(i));
             if (intObject != null) {
-                if (i >= startIndex || i <= endIndex) {
-                    drawQuad(x + totalwidth, y, x + totalwidth + intObject.width, y + intObject.height, intObject.storedX, intObject.storedY, intObject.storedX + intObject.width, intObject.storedY + intObject.height);
+                if (intObject.page < 0) {
+                    addGlyph(whatchars.charAt(i), intObject);
                 }
-                totalwidth += intObject.width;
+                firstPage = Math.min(firstPage, intObject.page);
+                lastPage = Math.max(lastPage, intObject.page);
             }
         }
         
-        GL.glEnd();
+        for (int page = firstPage; page <= lastPage; page++) {
+            pages.get(page).bind();
+            GL.glBegin(GL11.GL_QUADS);
+            
+            int totalwidth = 0;
+            for (int i = 0; i <= last; i++) {
+                IntObject intObject = getIntObject(whatchars.charAt(i));
+                
+                if (intObject != null) {
+                    if (i >= startIndex && intObject.page == page) {
+                        drawQuad(x + totalwidth, y, x + totalwidth + intObject.width, y + intObject.height, intObject.storedX, intObject.storedY, intObject.storedX + intObject.width, intObject.storedY + intObject.height);
+                    }
+                    totalwidth += intObject.width;
+                }
+            }
+            
+            GL.glEnd();
+        }
     }
     
     /**
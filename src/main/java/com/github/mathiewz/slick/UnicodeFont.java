@@ -22,7 +22,9 @@ import org.lwjgl.opengl.GL11;
 
 import com.github.mathiewz.slick.font.Glyph;
 import com.github.mathiewz.slick.font.GlyphPage;
+import com.github.mathiewz.slick.font.GlyphRasterizer;
 import com.github.mathiewz.slick.font.HieroSettings;
+import com.github.mathiewz.slick.font.effects.DistanceFieldEffect;
 import com.github.mathiewz.slick.font.effects.Effect;
 import com.github.mathiewz.slick.opengl.Texture;
 import com.github.mathiewz.slick.opengl.TextureImpl;
@@ -353,9 +355,13 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
      * Loads up to the specified number of queued glyphs to the backing textures. This is typically called from the game loop to
      * load glyphs on the fly that were requested for display but have not yet been loaded.
      *
+     * When {@link GlyphRasterizer} has worker threads, queued glyphs are handed to them to be rendered. With a limit only those
+     * already rendered are uploaded, so the limit acts as a per frame upload budget and the rest are picked up by later calls. With
+     * no limit every glyph is uploaded, waiting for the workers to finish rendering them.
+     *
      * @param maxGlyphsToLoad
-     *            The maximum number of glyphs to be loaded this time
-     * @return True if the glyphs were loaded entirely
+     *            The maximum number of glyphs to be loaded this time, or -1 for all of them
+     * @return True if the glyphs were loaded entirely, with worker threads false while glyphs are still waiting to be rendered
      */
     public boolean loadGlyphs(int maxGlyphsToLoad) {
         if (queuedGlyphs.isEmpty()) {
@@ -390,26 +396,53 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
 
         Collections.sort(queuedGlyphs, heightComparator);
 
+        if (GlyphRasterizer.getThreads() == 0) {
+            loadGlyphs(queuedGlyphs, maxGlyphsToLoad);
+            return true;
+        }
+
+        List<Glyph> rendered = new ArrayList<>();
+        for (Glyph glyph : queuedGlyphs) {
+            if (GlyphRasterizer.queue(this, glyph)) {
+                rendered.add(glyph);
+            }
+        }
+        if (maxGlyphsToLoad < 0) {
+            // everything was asked for, so wait for the workers as each glyph is uploaded
+            loadGlyphs(queuedGlyphs, maxGlyphsToLoad);
+        } else if (!rendered.isEmpty()) {
+            loadGlyphs(rendered, maxGlyphsToLoad);
+            queuedGlyphs.removeIf(glyph -> glyph.getImage() != null);
+        }
+        return queuedGlyphs.isEmpty();
+    }
+
+    /**
+     * Loads glyphs to the backing textures, removing them from the list as they're loaded
+     *
+     * @param glyphs
+     *            The glyphs to load
+     * @param maxGlyphsToLoad
+     *            The maximum number of glyphs to be loaded this time, or -1 for all of them
+     */
+    private void loadGlyphs(List<Glyph> glyphs, int maxGlyphsToLoad) {
         // Add to existing pages.
-        for (GlyphPage glyphPage2 : glyphPages) {
-            GlyphPage glyphPage = glyphPage2;
-            maxGlyphsToLoad -= glyphPage.loadGlyphs(queuedGlyphs, maxGlyphsToLoad);
-            if (maxGlyphsToLoad == 0 || queuedGlyphs.isEmpty()) {
-                return true;
+        for (GlyphPage glyphPage : glyphPages) {
+            maxGlyphsToLoad -= glyphPage.loadGlyphs(glyphs, maxGlyphsToLoad);
+            if (maxGlyphsToLoad == 0 || glyphs.isEmpty()) {
+                return;
             }
         }
 
         // Add to new pages.
-        while (!queuedGlyphs.isEmpty()) {
+        while (!glyphs.isEmpty()) {
             GlyphPage glyphPage = new GlyphPage(this, glyphPageWidth, glyphPageHeight);
             glyphPages.add(glyphPage);
-            maxGlyphsToLoad -= glyphPage.loadGlyphs(queuedGlyphs, maxGlyphsToLoad);
+            maxGlyphsToLoad -= glyphPage.loadGlyphs(glyphs, maxGlyphsToLoad);
             if (maxGlyphsToLoad == 0) {
-                return true;
+                return;
             }
         }
-
-        return true;
     }
 
     /**
@@ -436,6 +469,7 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
 
         queuedGlyphs.clear();
         missingGlyph = null;
+        TextMetricsCache.get().invalidate(this);
     }
 
     /**
@@ -503,6 +537,7 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
                     GL.glTranslatef(x, y, 0);
                     GL.glCallList(displayList.id);
                     GL.glTranslatef(-x, -y, 0);
+                    RenderStats.get().addFontListHit();
                     return displayList;
                 }
             } else if (displayList == null) {
@@ -523,6 +558,7 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
 
         if (displayList != null) {
             GL.glNewList(displayList.id, GL11.GL_COMPILE_AND_EXECUTE);
+            RenderStats.get().addFontListMiss();
         }
 
         char[] chars = text.substring(0, endIndex).toCharArray();
@@ -623,6 +659,104 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
         drawString(x, y, text, col, 0, text.length());
     }
 
+    /**
+     * Draw a string with a font using a {@link DistanceFieldEffect}, scaled to any size
+     * from the same glyph pages
+     *
+     * @param x
+     *            The x location at which to draw the string
+     * @param y
+     *            The y location at which to draw the string
+     * @param text
+     *            The text to be displayed
+     * @param color
+     *            The colour to draw the text in
+     * @param scale
+     *            The scale to draw the text at relative to the size of the font
+     */
+    public void drawDistanceField(float x, float y, String text, Color color, float scale) {
+        drawDistanceField(x, y, text, color, scale, 0.5f);
+    }
+
+    /**
+     * Draw a string with a font using a {@link DistanceFieldEffect}, scaled to any size
+     * from the same glyph pages and surrounded by an outline
+     *
+     * @param x
+     *            The x location at which to draw the string
+     * @param y
+     *            The y location at which to draw the string
+     * @param text
+     *            The text to be displayed
+     * @param color
+     *            The colour to draw the text in
+     * @param scale
+     *            The scale to draw the text at relative to the size of the font
+     * @param outlineColor
+     *            The colour to draw the outline in
+     * @param outlineWidth
+     *            The width of the outline in pixels of the unscaled font, up to the spread of the effect
+     */
+    public void drawDistanceField(float x, float y, String text, Color color, float scale, Color outlineColor, float outlineWidth) {
+        float spread = getDistanceFieldEffect().getSpread();
+        drawDistanceField(x, y, text, outlineColor, scale, Math.max(0, 0.5f - outlineWidth / (2 * spread)));
+        drawDistanceField(x, y, text, color, scale, 0.5f);
+    }
+
+    /**
+     * Draw a string with a distance field font, keeping the pixels whose distance is at least the threshold
+     *
+     * @param x
+     *            The x location at which to draw the string
+     * @param y
+     *            The y location at which to draw the string
+     * @param text
+     *            The text to be displayed
+     * @param color
+     *            The colour to draw the text in
+     * @param scale
+     *            The scale to draw the text at relative to the size of the font
+     * @param threshold
+     *            The value of the field at the edge drawn, 0.5 being the edge of the glyph
+     */
+    private void drawDistanceField(float x, float y, String text, Color color, float scale, float threshold) {
+        getDistanceFieldEffect();
+
+        GL.glDisable(GL11.GL_BLEND);
+        GL.glEnable(GL11.GL_ALPHA_TEST);
+        GL.glAlphaFunc(GL11.GL_GEQUAL, threshold);
+        GL.glPushMatrix();
+        GL.glTranslatef(x, y, 0);
+        GL.glScalef(scale, scale, 1);
+        drawDisplayList(0, 0, text, color, 0, text.length());
+        GL.glPopMatrix();
+        GL.glDisable(GL11.GL_ALPHA_TEST);
+        GL.glEnable(GL11.GL_BLEND);
+    }
+
+    /**
+     * Get the distance field effect applied to this font
+     *
+     * @return The distance field effect of this font
+     */
+    private DistanceFieldEffect getDistanceFieldEffect() {
+        for (Effect effect : effects) {
+            if (effect instanceof DistanceFieldEffect) {
+                return (DistanceFieldEffect) effect;
+            }
+        }
+        throw new IllegalStateException("The UnicodeFont must have a DistanceFieldEffect to be drawn as a distance field.");
+    }
+
+    /**
+     * Check if this font renders its glyphs as distance fields
+     *
+     * @return True if the font has a {@link DistanceFieldEffect}
+     */
+    public boolean isDistanceField() {
+        return effects.stream().anyMatch(DistanceFieldEffect.class::isInstance);
+    }
+
     /**
      * Returns the glyph for the specified codePoint. If the glyph does not exist yet,
      * it is created and queued to be loaded.
@@ -880,6 +1014,7 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
      */
     public void setPaddingTop(int paddingTop) {
         this.paddingTop = paddingTop;
+        TextMetricsCache.get().invalidate(this);
     }
 
     /**
@@ -899,6 +1034,7 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
      */
     public void setPaddingLeft(int paddingLeft) {
         this.paddingLeft = paddingLeft;
+        TextMetricsCache.get().invalidate(this);
     }
 
     /**
@@ -918,6 +1054,7 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
      */
     public void setPaddingBottom(int paddingBottom) {
         this.paddingBottom = paddingBottom;
+        TextMetricsCache.get().invalidate(this);
     }
 
     /**
@@ -937,6 +1074,7 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
      */
     public void setPaddingRight(int paddingRight) {
         this.paddingRight = paddingRight;
+        TextMetricsCache.get().invalidate(this);
     }
 
     /**
@@ -957,6 +1095,7 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
      */
     public void setPaddingAdvanceX(int paddingAdvanceX) {
         this.paddingAdvanceX = paddingAdvanceX;
+        TextMetricsCache.get().invalidate(this);
     }
 
     /**
@@ -977,6 +1116,7 @@ public class UnicodeFont implements com.github.mathiewz.slick.Font {
      */
     public void setPaddingAdvanceY(int paddingAdvanceY) {
         this.paddingAdvanceY = paddingAdvanceY;
+        TextMetricsCache.get().invalidate(this);
     }
 
     /**
@@ -5,6 +5,7 @@ import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.font.GlyphMetrics;
 import java.awt.font.GlyphVector;
+import java.util.concurrent.Future;
 
 import com.github.mathiewz.slick.Image;
 import com.github.mathiewz.slick.UnicodeFont;
@@ -29,6 +30,8 @@ public class Glyph {
     private Shape shape;
     /** The image generated for this glyph */
     private Image image;
+    /** The pixels of this glyph being rasterized in the background, or null if not queued */
+    private Future<int[]> raster;
 
     /**
      * Create a new glyph
@@ -149,6 +152,26 @@ public class Glyph {
      */
     public void setImage(Image image) {
         this.image = image;
+        raster = null;
+    }
+
+    /**
+     * Get the pixels of this glyph being rasterized in the background
+     *
+     * @return The pixels being rasterized or null if the glyph hasn't been queued
+     */
+    Future<int[]> getRaster() {
+        return raster;
+    }
+
+    /**
+     * Set the pixels of this glyph being rasterized in the background
+     *
+     * @param raster
+     *            The pixels being rasterized
+     */
+    void setRaster(Future<int[]> raster) {
+        this.raster = raster;
     }
 
     /**
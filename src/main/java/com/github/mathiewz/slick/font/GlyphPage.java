@@ -1,12 +1,10 @@
 
 package com.github.mathiewz.slick.font;
 
-import java.awt.AlphaComposite;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.font.FontRenderContext;
 import java.awt.image.BufferedImage;
-import java.awt.image.WritableRaster;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
@@ -48,7 +46,7 @@ public class GlyphPage {
     /** A temporary working buffer */
     private static IntBuffer scratchIntBuffer = scratchByteBuffer.asIntBuffer();
     
-    /** A temporary image used to generate the glyph page */
+    /** A temporary image providing the graphics context glyphs are measured with */
     private static BufferedImage scratchImage = new BufferedImage(MAX_GLYPH_SIZE, MAX_GLYPH_SIZE, BufferedImage.TYPE_INT_ARGB);
     /** The graphics context form the temporary image */
     private static Graphics2D scratchGraphics = (Graphics2D) scratchImage.getGraphics();
@@ -105,7 +103,8 @@ public class GlyphPage {
         this.pageWidth = pageWidth;
         this.pageHeight = pageHeight;
         
-        pageImage = new Image(pageWidth, pageHeight);
+        // Distance fields need filtering to find the edge between texels
+        pageImage = new Image(pageWidth, pageHeight, unicodeFont.isDistanceField() ? Image.FILTER_LINEAR : Image.FILTER_NEAREST);
     }
     
     /**
@@ -194,7 +193,8 @@ public class GlyphPage {
     }
     
     /**
-     * Loads a single glyph to the backing texture, if it fits.
+     * Loads a single glyph to the backing texture, if it fits. Glyphs queued to render in the
+     * background are only uploaded here, others are rendered first.
      *
      * @param glyph
      *            The glyph to be rendered
@@ -204,20 +204,7 @@ public class GlyphPage {
      *            The expected height of the glyph
      */
     private void renderGlyph(Glyph glyph, int width, int height) {
-        // Draw the glyph to the scratch image using Java2D.
-        scratchGraphics.setComposite(AlphaComposite.Clear);
-        scratchGraphics.fillRect(0, 0, MAX_GLYPH_SIZE, MAX_GLYPH_SIZE);
-        scratchGraphics.setComposite(AlphaComposite.SrcOver);
-        scratchGraphics.setColor(java.awt.Color.white);
-        unicodeFont.getEffects().forEach(effect -> effect.draw(scratchImage, scratchGraphics, unicodeFont, glyph));
-        glyph.setShape(null); // The shape will never be needed again.
-        
-        WritableRaster raster = scratchImage.getRaster();
-        int[] row = new int[width];
-        for (int y = 0; y < height; y++) {
-            raster.getDataElements(0, y, width, 1, row);
-            scratchIntBuffer.put(row);
-        }
+        scratchIntBuffer.put(GlyphRasterizer.getPixels(unicodeFont, glyph, width, height));
         GL.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, pageX, pageY, width, height, GL12.GL_BGRA, GL11.GL_UNSIGNED_BYTE, scratchByteBuffer);
         scratchIntBuffer.clear();
         
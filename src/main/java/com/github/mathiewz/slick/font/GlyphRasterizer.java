@@ -0,0 +1,162 @@
+package com.github.mathiewz.slick.font;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.mathiewz.slick.SlickException;
+import com.github.mathiewz.slick.UnicodeFont;
+
+/**
+ * Renders glyphs and their effects with Java2D into arrays of pixels ready to be
+ * uploaded to a glyph page. By default glyphs are rendered on the OpenGL thread as
+ * they're loaded. Once worker threads are set glyphs are queued to them instead and
+ * only uploaded once they're ready, so a burst of new glyphs no longer stalls a frame.
+ *
+ * Each thread renders into its own scratch image.
+ *
+ * @author mathiewz
+ */
+public class GlyphRasterizer {
+    /** The scratch image glyphs are rendered into, one per thread */
+    private static final ThreadLocal<BufferedImage> scratchImage = ThreadLocal.withInitial(() -> new BufferedImage(GlyphPage.MAX_GLYPH_SIZE, GlyphPage.MAX_GLYPH_SIZE, BufferedImage.TYPE_INT_ARGB));
+    /** The graphics context of the scratch image, one per thread */
+    private static final ThreadLocal<Graphics2D> scratchGraphics = ThreadLocal.withInitial(() -> {
+        Graphics2D g = (Graphics2D) scratchImage.get().getGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        return g;
+    });
+
+    /** The pool of threads rendering glyphs or null if glyphs are rendered as they're loaded */
+    private static ExecutorService workers;
+    /** The number of threads rendering glyphs */
+    private static int threads;
+
+    /**
+     * Prevent instantiation
+     */
+    private GlyphRasterizer() {
+    }
+
+    /**
+     * Set the number of worker threads used to render glyphs in the background
+     *
+     * @param count
+     *            The number of threads to render with, or zero to render on the OpenGL thread as each glyph is loaded
+     */
+    public static synchronized void setThreads(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Number of glyph threads can not be negative: " + count);
+        }
+        if (workers != null) {
+            workers.shutdown();
+            workers = null;
+        }
+        threads = count;
+        if (count > 0) {
+            AtomicInteger created = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(count, r -> {
+                Thread thread = new Thread(r, "Slick Glyph Rasterizer " + created.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Get the number of worker threads used to render glyphs
+     *
+     * @return The number of threads rendering, zero if glyphs are rendered as they're loaded
+     */
+    public static synchronized int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Queue a glyph to be rendered in the background, if it isn't already
+     *
+     * @param unicodeFont
+     *            The font the glyph is part of
+     * @param glyph
+     *            The glyph to render
+     * @return True if the glyph has been rendered and is ready to be uploaded
+     */
+    public static synchronized boolean queue(UnicodeFont unicodeFont, Glyph glyph) {
+        Future<int[]> raster = glyph.getRaster();
+        if (raster == null) {
+            if (workers == null) {
+                return true;
+            }
+            int width = Math.min(GlyphPage.MAX_GLYPH_SIZE, glyph.getWidth());
+            int height = Math.min(GlyphPage.MAX_GLYPH_SIZE, glyph.getHeight());
+            raster = workers.submit(() -> rasterize(unicodeFont, glyph, width, height));
+            glyph.setRaster(raster);
+        }
+        return raster.isDone();
+    }
+
+    /**
+     * Get the pixels of a glyph, waiting for them if it's been queued or rendering it
+     * now if it hasn't
+     *
+     * @param unicodeFont
+     *            The font the glyph is part of
+     * @param glyph
+     *            The glyph to get the pixels of
+     * @param width
+     *            The width of the glyph
+     * @param height
+     *            The height of the glyph
+     * @return The ARGB pixels of the glyph, a row at a time
+     */
+    static int[] getPixels(UnicodeFont unicodeFont, Glyph glyph, int width, int height) {
+        Future<int[]> raster = glyph.getRaster();
+        if (raster == null) {
+            return rasterize(unicodeFont, glyph, width, height);
+        }
+        try {
+            return raster.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlickException("Interrupted rendering glyph: " + glyph.getCodePoint(), e);
+        } catch (ExecutionException e) {
+            throw new SlickException("Failed to render glyph: " + glyph.getCodePoint(), e.getCause());
+        }
+    }
+
+    /**
+     * Render a glyph and its effects with Java2D
+     *
+     * @param unicodeFont
+     *            The font the glyph is part of
+     * @param glyph
+     *            The glyph to render
+     * @param width
+     *            The width of the glyph
+     * @param height
+     *            The height of the glyph
+     * @return The ARGB pixels of the glyph, a row at a time
+     */
+    private static int[] rasterize(UnicodeFont unicodeFont, Glyph glyph, int width, int height) {
+        BufferedImage image = scratchImage.get();
+        Graphics2D g = scratchGraphics.get();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, GlyphPage.MAX_GLYPH_SIZE, GlyphPage.MAX_GLYPH_SIZE);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setColor(java.awt.Color.white);
+        unicodeFont.getEffects().forEach(effect -> effect.draw(image, g, unicodeFont, glyph));
+        glyph.setShape(null); // The shape will never be needed again.
+
+        int[] pixels = new int[width * height];
+        image.getRaster().getDataElements(0, 0, width, height, pixels);
+        return pixels;
+    }
+}
@@ -0,0 +1,277 @@
+package com.github.mathiewz.slick.font.effects;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.mathiewz.slick.UnicodeFont;
+import com.github.mathiewz.slick.font.Glyph;
+import com.github.mathiewz.slick.font.GlyphPage;
+
+/**
+ * Renders glyphs as signed distance fields rather than coverage. Each pixel holds in its
+ * alpha the distance to the edge of the glyph, 0.5 on the edge rising inside and falling
+ * outside, so that a single set of glyph pages can be drawn crisply at any size with
+ * {@link UnicodeFont#drawDistanceField(float, float, String, com.github.mathiewz.slick.Color, float)}.
+ *
+ * The glyph is drawn at a higher resolution and the distances measured there before being
+ * sampled down. This should be the only effect on the font, and the font needs padding of
+ * at least the spread on every side so the field isn't clipped.
+ *
+ * @author mathiewz
+ */
+public class DistanceFieldEffect implements ConfigurableEffect {
+    /** The value used for pixels with no edge in reach */
+    private static final float INFINITY = 1e20f;
+
+    /** The distance in pixels from the edge at which the field saturates */
+    private int spread = 4;
+    /** The factor the glyph is scaled up by to measure distances */
+    private int scale = 4;
+
+    /**
+     * Default constructor for injection
+     */
+    public DistanceFieldEffect() {
+    }
+
+    /**
+     * Create a new distance field effect
+     *
+     * @param spread
+     *            The distance in pixels from the edge at which the field saturates
+     * @param scale
+     *            The factor the glyph is scaled up by to measure distances
+     */
+    public DistanceFieldEffect(int spread, int scale) {
+        setSpread(spread);
+        setScale(scale);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.font.effects.Effect#draw(java.awt.image.BufferedImage, java.awt.Graphics2D, com.github.mathiewz.slick.UnicodeFont, com.github.mathiewz.slick.font.Glyph)
+     */
+    @Override
+    public void draw(BufferedImage image, Graphics2D g, UnicodeFont unicodeFont, Glyph glyph) {
+        int width = Math.min(GlyphPage.MAX_GLYPH_SIZE, glyph.getWidth());
+        int height = Math.min(GlyphPage.MAX_GLYPH_SIZE, glyph.getHeight());
+
+        BufferedImage large = new BufferedImage(width * scale, height * scale, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D lg = large.createGraphics();
+        lg.scale(scale, scale);
+        lg.setColor(Color.white);
+        lg.fill(glyph.getShape());
+        lg.dispose();
+
+        byte[] pixels = ((DataBufferByte) large.getRaster().getDataBuffer()).getData();
+        boolean[] inside = new boolean[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            inside[i] = (pixels[i] & 0xFF) >= 128;
+        }
+
+        byte[] field = generate(inside, width * scale, height * scale, scale, spread);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = (field[y * width + x] & 0xFF) << 24 | 0xFFFFFF;
+            }
+            image.getRaster().setDataElements(0, y, width, 1, row);
+        }
+    }
+
+    /**
+     * Generate a distance field from a high resolution mask
+     *
+     * @param inside
+     *            The mask, true for pixels inside the shape, a row at a time
+     * @param width
+     *            The width of the mask
+     * @param height
+     *            The height of the mask
+     * @param scale
+     *            The factor the field is sampled down by
+     * @param spread
+     *            The distance in field pixels from the edge at which the field saturates
+     * @return The field as one byte per pixel, 128 on the edge, rising to 255 inside and
+     *         falling to 0 outside, a row at a time
+     */
+    public static byte[] generate(boolean[] inside, int width, int height, int scale, int spread) {
+        float[] toInside = new float[inside.length];
+        float[] toOutside = new float[inside.length];
+        for (int i = 0; i < inside.length; i++) {
+            toInside[i] = inside[i] ? 0 : INFINITY;
+            toOutside[i] = inside[i] ? INFINITY : 0;
+        }
+        transform(toInside, width, height);
+        transform(toOutside, width, height);
+
+        int fieldWidth = width / scale;
+        int fieldHeight = height / scale;
+        float range = 2f * spread * scale;
+        byte[] field = new byte[fieldWidth * fieldHeight];
+        for (int y = 0; y < fieldHeight; y++) {
+            for (int x = 0; x < fieldWidth; x++) {
+                int sample = (y * scale + scale / 2) * width + x * scale + scale / 2;
+                float distance = inside[sample] ? (float) Math.sqrt(toOutside[sample]) - 0.5f : 0.5f - (float) Math.sqrt(toInside[sample]);
+                float value = 0.5f + distance / range;
+                field[y * fieldWidth + x] = (byte) Math.round(Math.max(0, Math.min(1, value)) * 255);
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Replace each value of a grid with the squared distance to the nearest zero, using
+     * the linear time transform of Felzenszwalb and Huttenlocher on the columns then rows
+     *
+     * @param grid
+     *            The grid, zero at the pixels distances are measured to and infinity elsewhere
+     * @param width
+     *            The width of the grid
+     * @param height
+     *            The height of the grid
+     */
+    private static void transform(float[] grid, int width, int height) {
+        int size = Math.max(width, height);
+        float[] f = new float[size];
+        float[] d = new float[size];
+        int[] v = new int[size];
+        float[] z = new float[size + 1];
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                f[y] = grid[y * width + x];
+            }
+            transform(f, height, d, v, z);
+            for (int y = 0; y < height; y++) {
+                grid[y * width + x] = d[y];
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(grid, y * width, f, 0, width);
+            transform(f, width, d, v, z);
+            System.arraycopy(d, 0, grid, y * width, width);
+        }
+    }
+
+    /**
+     * The one dimensional squared distance transform
+     *
+     * @param f
+     *            The values to transform
+     * @param n
+     *            The number of values
+     * @param d
+     *            The array to write the transformed values into
+     * @param v
+     *            Working space for the locations of the parabolas in the lower envelope
+     * @param z
+     *            Working space for the boundaries between the parabolas
+     */
+    private static void transform(float[] f, int n, float[] d, int[] v, float[] z) {
+        int k = 0;
+        v[0] = 0;
+        z[0] = -INFINITY;
+        z[1] = INFINITY;
+        for (int q = 1; q < n; q++) {
+            float s = (f[q] + q * q - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            while (s <= z[k]) {
+                k--;
+                s = (f[q] + q * q - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = INFINITY;
+        }
+        k = 0;
+        for (int q = 0; q < n; q++) {
+            while (z[k + 1] < q) {
+                k++;
+            }
+            d[q] = (q - v[k]) * (q - v[k]) + f[v[k]];
+        }
+    }
+
+    /**
+     * Get the distance in pixels from the edge at which the field saturates
+     *
+     * @return The spread of the field
+     */
+    public int getSpread() {
+        return spread;
+    }
+
+    /**
+     * Set the distance in pixels from the edge at which the field saturates. The
+     * font needs at least this much padding on each side.
+     *
+     * @param spread
+     *            The spread of the field
+     */
+    public void setSpread(int spread) {
+        if (spread < 1) {
+            throw new IllegalArgumentException("spread must be at least 1: " + spread);
+        }
+        this.spread = spread;
+    }
+
+    /**
+     * Get the factor the glyph is scaled up by to measure distances
+     *
+     * @return The scale distances are measured at
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Set the factor the glyph is scaled up by to measure distances. Higher values give
+     * a more accurate field at the cost of generation time.
+     *
+     * @param scale
+     *            The scale distances are measured at
+     */
+    public void setScale(int scale) {
+        if (scale < 1) {
+            throw new IllegalArgumentException("scale must be at least 1: " + scale);
+        }
+        this.scale = scale;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "Distance field";
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.font.effects.ConfigurableEffect#getValues()
+     */
+    @Override
+    public List<Value> getValues() {
+        List<Value> values = new ArrayList<>();
+        values.add(EffectUtil.intValue("Spread", spread, "The distance in pixels from the edge at which the field saturates. The font needs at least this much padding."));
+        values.add(EffectUtil.intValue("Scale", scale, "The factor the glyph is scaled up by to measure distances. Higher is more accurate but slower."));
+        return values;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.font.effects.ConfigurableEffect#setValues(java.util.List)
+     */
+    @Override
+    public void setValues(List<Value> values) {
+        for (Value value : values) {
+            if (value.getName().equals("Spread")) {
+                setSpread((Integer) value.getObject());
+            } else if (value.getName().equals("Scale")) {
+                setScale((Integer) value.getObject());
+            }
+        }
+    }
+}
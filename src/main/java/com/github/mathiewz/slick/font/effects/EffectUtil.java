@@ -38,8 +38,8 @@ import com.github.mathiewz.slick.font.effects.ConfigurableEffect.Value;
  * @author Nathan Sweet 
  */
 public class EffectUtil {
-    /** A graphics 2D temporary surface to be used when generating effects */
-    static private BufferedImage scratchImage = new BufferedImage(GlyphPage.MAX_GLYPH_SIZE, GlyphPage.MAX_GLYPH_SIZE, BufferedImage.TYPE_INT_ARGB);
+    /** A graphics 2D temporary surface to be used when generating effects, one per thread since glyphs may be rendered in the background */
+    static private final ThreadLocal<BufferedImage> scratchImage = ThreadLocal.withInitial(() -> new BufferedImage(GlyphPage.MAX_GLYPH_SIZE, GlyphPage.MAX_GLYPH_SIZE, BufferedImage.TYPE_INT_ARGB));
 
     /**
      * Returns an image that can be used by effects as a temp image.
@@ -47,12 +47,13 @@ public class EffectUtil {
      * @return The scratch image used for temporary operations
      */
     static public BufferedImage getScratchImage() {
-        Graphics2D g = (Graphics2D) scratchImage.getGraphics();
+        BufferedImage image = scratchImage.get();
+        Graphics2D g = (Graphics2D) image.getGraphics();
         g.setComposite(AlphaComposite.Clear);
         g.fillRect(0, 0, GlyphPage.MAX_GLYPH_SIZE, GlyphPage.MAX_GLYPH_SIZE);
         g.setComposite(AlphaComposite.SrcOver);
         g.setColor(java.awt.Color.white);
-        return scratchImage;
+        return image;
     }
 
     /**
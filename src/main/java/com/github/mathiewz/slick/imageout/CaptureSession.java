@@ -0,0 +1,280 @@
+package com.github.mathiewz.slick.imageout;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.lwjgl.BufferUtils;
+
+import com.github.mathiewz.slick.SlickException;
+import com.github.mathiewz.slick.opengl.PixelReadback;
+import com.github.mathiewz.slick.opengl.renderer.Renderer;
+import com.github.mathiewz.slick.opengl.renderer.SGL;
+import com.github.mathiewz.slick.util.Log;
+
+/**
+ * Captures a sequence of frames from the display to numbered image files without
+ * holding up the game. Each frame is read back asynchronously into one of a pool of
+ * reusable buffers and queued for a set of worker threads to encode and write out.
+ *
+ * When no buffer is free or the queue is full the frame is dropped and counted rather
+ * than waited for, so a slow disk costs frames in the capture rather than in the game.
+ * Frame numbers keep counting across drops, leaving gaps in the file names where frames
+ * were lost.
+ *
+ * Frames are captured with {@link #capture()}, or automatically each frame by setting the
+ * session on the game container. Both capture and close must be called on the OpenGL thread.
+ *
+ * @author mathiewz
+ */
+public class CaptureSession {
+    /** The renderer to use for all GL operations */
+    private static final SGL GL = Renderer.get();
+
+    /** The directory the frames are written to */
+    private final File directory;
+    /** The prefix given to the name of each frame file */
+    private final String prefix;
+    /** The format the frames are written in */
+    private final String format;
+    /** The width of the area captured */
+    private final int width;
+    /** The height of the area captured */
+    private final int height;
+    /** The workers encoding frames */
+    private final ThreadPoolExecutor encoders;
+    /** The buffers free to capture into */
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    /** The most buffers the session will allocate */
+    private final int maxBuffers;
+    /** Completed once the session is closed and all queued frames written */
+    private final CompletableFuture<Void> finished = new CompletableFuture<>();
+
+    /** The number of buffers allocated */
+    private int allocated;
+    /** The number of the next frame captured */
+    private long frame;
+    /** The number of reads in flight */
+    private int reading;
+    /** True if the session no longer accepts frames */
+    private boolean closed;
+    /** The number of frames dropped */
+    private final AtomicLong dropped = new AtomicLong();
+    /** The number of frames written */
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * Create a new capture session
+     *
+     * @param directory
+     *            The directory to write the frames to, created if it doesn't exist
+     * @param prefix
+     *            The prefix given to the name of each frame file
+     * @param format
+     *            The format to write the frames in, e.g. {@link ImageOut#TGA} or {@link ImageOut#PNG}
+     * @param width
+     *            The width of the display area to capture
+     * @param height
+     *            The height of the display area to capture
+     * @param threads
+     *            The number of worker threads encoding frames
+     * @param queueSize
+     *            The number of frames that can wait to be encoded before frames are dropped
+     */
+    public CaptureSession(File directory, String prefix, String format, int width, int height, int threads, int queueSize) {
+        if (threads < 1 || queueSize < 1) {
+            throw new IllegalArgumentException("Capture needs at least one thread and queue slot: " + threads + ", " + queueSize);
+        }
+        ImageWriterFactory.getWriterForFormat(format);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new SlickException("Unable to create capture directory: " + directory);
+        }
+
+        this.directory = directory;
+        this.prefix = prefix;
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        maxBuffers = queueSize + threads + PixelReadback.get().getLatency();
+
+        AtomicInteger count = new AtomicInteger();
+        encoders = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread thread = new Thread(r, "Slick Capture " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) {
+            @Override
+            protected void terminated() {
+                finished.complete(null);
+            }
+        };
+    }
+
+    /**
+     * Capture the current contents of the display as the next frame
+     *
+     * @return True if the frame was captured, false if it was dropped
+     */
+    public boolean capture() {
+        if (closed) {
+            throw new SlickException("Capture session has been closed");
+        }
+
+        long number = frame++;
+        ByteBuffer buffer = obtain();
+        if (buffer == null) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        reading++;
+        GL.flush();
+        PixelReadback.get().read(0, 0, width, height, buffer).whenComplete((pixels, error) -> {
+            reading--;
+            if (error != null) {
+                Log.error("Unable to read back frame " + number, error);
+                drop(buffer);
+            } else {
+                queue(number, pixels);
+            }
+            finishIfIdle();
+        });
+        return true;
+    }
+
+    /**
+     * Stop capturing frames. Frames already captured are still written out.
+     *
+     * @return A future completed once all captured frames have been written
+     */
+    public CompletableFuture<Void> close() {
+        closed = true;
+        finishIfIdle();
+        return finished;
+    }
+
+    /**
+     * Check if the session has been closed
+     *
+     * @return True if the session no longer accepts frames
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Get the number of frames captured or dropped so far
+     *
+     * @return The number of frames captured or dropped
+     */
+    public long getFrameCount() {
+        return frame;
+    }
+
+    /**
+     * Get the number of frames dropped because the session couldn't keep up
+     *
+     * @return The number of frames dropped
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Get the number of frames written out
+     *
+     * @return The number of frames written
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * Get the directory the frames are written to
+     *
+     * @return The directory the frames are written to
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Hand a frame that's been read back to the workers
+     *
+     * @param number
+     *            The number of the frame
+     * @param pixels
+     *            The pixels of the frame
+     */
+    private void queue(long number, ByteBuffer pixels) {
+        try {
+            encoders.execute(() -> write(number, pixels));
+        } catch (RejectedExecutionException e) {
+            drop(pixels);
+        }
+    }
+
+    /**
+     * Encode a frame and write it to its file
+     *
+     * @param number
+     *            The number of the frame
+     * @param pixels
+     *            The pixels of the frame
+     */
+    private void write(long number, ByteBuffer pixels) {
+        File file = new File(directory, String.format("%s%06d.%s", prefix, number, format));
+        try (OutputStream out = new FileOutputStream(file)) {
+            ImageOut.write(pixels, width, height, format, out, false);
+            written.incrementAndGet();
+        } catch (IOException | SlickException e) {
+            Log.error("Unable to write captured frame: " + file, e);
+        } finally {
+            free.add(pixels);
+        }
+    }
+
+    /**
+     * Count a frame as dropped and return its buffer to the pool
+     *
+     * @param buffer
+     *            The buffer the frame was held in
+     */
+    private void drop(ByteBuffer buffer) {
+        dropped.incrementAndGet();
+        free.add(buffer);
+    }
+
+    /**
+     * Get a buffer to capture a frame into
+     *
+     * @return A free buffer or null if all the buffers are in use
+     */
+    private ByteBuffer obtain() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null && allocated < maxBuffers) {
+            allocated++;
+            buffer = BufferUtils.createByteBuffer(width * height * 4);
+        }
+        return buffer;
+    }
+
+    /**
+     * Shut down the workers once the session is closed and no reads are in flight
+     */
+    private void finishIfIdle() {
+        if (closed && reading == 0 && !encoders.isShutdown()) {
+            encoders.shutdown();
+        }
+    }
+}
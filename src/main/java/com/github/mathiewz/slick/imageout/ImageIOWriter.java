@@ -54,8 +54,51 @@ public class ImageIOWriter implements ImageWriter {
             }
         }
 
+        write(out.array(), image.getWidth(), image.getHeight(), format, output, hasAlpha);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.imageout.ImageWriter#savePixels(java.nio.ByteBuffer, int, int, java.lang.String, java.io.OutputStream, boolean)
+     */
+    @Override
+    public void savePixels(ByteBuffer pixels, int width, int height, String format, OutputStream output, boolean hasAlpha) throws IOException {
+        ByteBuffer source = pixels.duplicate();
+        source.rewind();
+        byte[] data = new byte[(hasAlpha ? 4 : 3) * width * height];
+        if (hasAlpha) {
+            source.get(data);
+        } else {
+            for (int i = 0; i < data.length; i += 3) {
+                data[i] = source.get();
+                data[i + 1] = source.get();
+                data[i + 2] = source.get();
+                source.get();
+            }
+        }
+        write(data, width, height, format, output, hasAlpha);
+    }
+
+    /**
+     * Write packed pixel data out through ImageIO
+     *
+     * @param data
+     *            The RGB or RGBA pixel data, top row first
+     * @param width
+     *            The width of the image
+     * @param height
+     *            The height of the image
+     * @param format
+     *            The format to write the image out in
+     * @param output
+     *            The output stream to which the image data should be written
+     * @param hasAlpha
+     *            True if the data includes an alpha channel
+     * @throws IOException
+     *             Indicates a failure to write out the image
+     */
+    private void write(byte[] data, int width, int height, String format, OutputStream output, boolean hasAlpha) throws IOException {
         // create a raster of the correct format and fill it with our buffer
-        DataBufferByte dataBuffer = new DataBufferByte(out.array(), len);
+        DataBufferByte dataBuffer = new DataBufferByte(data, data.length);
 
         PixelInterleavedSampleModel sampleModel;
 
@@ -63,12 +106,12 @@ public class ImageIOWriter implements ImageWriter {
 
         if (hasAlpha) {
             int[] offsets = { 0, 1, 2, 3 };
-            sampleModel = new PixelInterleavedSampleModel(DataBuffer.TYPE_BYTE, image.getWidth(), image.getHeight(), 4, 4 * image.getWidth(), offsets);
+            sampleModel = new PixelInterleavedSampleModel(DataBuffer.TYPE_BYTE, width, height, 4, 4 * width, offsets);
 
             cm = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), new int[] { 8, 8, 8, 8 }, true, false, Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE);
         } else {
             int[] offsets = { 0, 1, 2 };
-            sampleModel = new PixelInterleavedSampleModel(DataBuffer.TYPE_BYTE, image.getWidth(), image.getHeight(), 3, 3 * image.getWidth(), offsets);
+            sampleModel = new PixelInterleavedSampleModel(DataBuffer.TYPE_BYTE, width, height, 3, 3 * width, offsets);
 
             cm = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), new int[] { 8, 8, 8, 0 }, false, false, Transparency.OPAQUE, DataBuffer.TYPE_BYTE);
         }
@@ -3,6 +3,7 @@ package com.github.mathiewz.slick.imageout;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import com.github.mathiewz.slick.Image;
 import com.github.mathiewz.slick.SlickException;
@@ -141,4 +142,57 @@ public class ImageOut {
             throw new SlickException("Unable to write to the destination: " + dest, e);
         }
     }
+    
+    /**
+     * Write raw pixels out to a specified output stream
+     *
+     * @param pixels
+     *            The RGBA pixels to write, top row first
+     * @param width
+     *            The width of the image held in the pixels
+     * @param height
+     *            The height of the image held in the pixels
+     * @param format
+     *            The format to write the image out in
+     * @param out
+     *            The output stream to which the image should be written
+     * @param writeAlpha
+     *            True if we should write the alpha channel out (some formats don't support this, like JPG)
+     */
+    public static void write(ByteBuffer pixels, int width, int height, String format, OutputStream out, boolean writeAlpha) {
+        try {
+            ImageWriter writer = ImageWriterFactory.getWriterForFormat(format);
+            writer.savePixels(pixels, width, height, format, out, writeAlpha);
+        } catch (IOException e) {
+            throw new SlickException("Unable to write out the image in format: " + format, e);
+        }
+    }
+    
+    /**
+     * Write raw pixels out to a file on the local file system. The format of the output
+     * is determined based on the file name extension
+     *
+     * @param pixels
+     *            The RGBA pixels to write, top row first
+     * @param width
+     *            The width of the image held in the pixels
+     * @param height
+     *            The height of the image held in the pixels
+     * @param dest
+     *            The destination path to write to
+     * @param writeAlpha
+     *            True if we should write the alpha channel out (some formats don't support this, like JPG)
+     */
+    public static void write(ByteBuffer pixels, int width, int height, String dest, boolean writeAlpha) {
+        int ext = dest.lastIndexOf('.');
+        if (ext < 0) {
+            throw new SlickException("Unable to determine format from: " + dest);
+        }
+        
+        try (OutputStream out = new FileOutputStream(dest)) {
+            write(pixels, width, height, dest.substring(ext + 1), out, writeAlpha);
+        } catch (IOException e) {
+            throw new SlickException("Unable to write to the destination: " + dest, e);
+        }
+    }
 }
@@ -2,8 +2,10 @@ package com.github.mathiewz.slick.imageout;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import com.github.mathiewz.slick.Image;
+import com.github.mathiewz.slick.util.OperationNotSupportedException;
 
 /**
  * The description of any class that can produce data to an output stream reprsenting
@@ -27,4 +29,28 @@ public interface ImageWriter {
      *             Indicates a failure to write out the image to the specified location
      */
     void saveImage(Image image, String format, OutputStream out, boolean writeAlpha) throws IOException;
+
+    /**
+     * Save raw pixels, such as those read back from the screen, to an given location.
+     * Unlike {@link #saveImage(Image, String, OutputStream, boolean)} this doesn't need
+     * the OpenGL context and so may be called from any thread.
+     *
+     * @param pixels
+     *            The RGBA pixels to be written, top row first
+     * @param width
+     *            The width of the image
+     * @param height
+     *            The height of the image
+     * @param format
+     *            The format that this writer is expected to be produced in
+     * @param out
+     *            The output stream to which the image data should be written
+     * @param writeAlpha
+     *            True if we should write alpha information to the file
+     * @throws IOException
+     *             Indicates a failure to write out the image to the specified location
+     */
+    default void savePixels(ByteBuffer pixels, int width, int height, String format, OutputStream out, boolean writeAlpha) throws IOException {
+        throw new OperationNotSupportedException("Writing raw pixels is not supported for: " + format);
+    }
 }
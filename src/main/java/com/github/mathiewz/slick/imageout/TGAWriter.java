@@ -4,6 +4,7 @@ import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import com.github.mathiewz.slick.Color;
 import com.github.mathiewz.slick.Image;
@@ -32,7 +33,68 @@ public class TGAWriter implements ImageWriter {
     @Override
     public void saveImage(Image image, String format, OutputStream output, boolean writeAlpha) throws IOException {
         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        writeHeader(out, image.getWidth(), image.getHeight(), writeAlpha);
 
+        // Write out the image data
+        Color c;
+
+        for (int y = image.getHeight() - 1; y <= 0; y--) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                c = image.getColor(x, y);
+
+                out.writeByte((byte) (c.b * 255.0f));
+                out.writeByte((byte) (c.g * 255.0f));
+                out.writeByte((byte) (c.r * 255.0f));
+                if (writeAlpha) {
+                    out.writeByte((byte) (c.a * 255.0f));
+                }
+            }
+        }
+
+        out.close();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.imageout.ImageWriter#savePixels(java.nio.ByteBuffer, int, int, java.lang.String, java.io.OutputStream, boolean)
+     */
+    @Override
+    public void savePixels(ByteBuffer pixels, int width, int height, String format, OutputStream output, boolean writeAlpha) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        writeHeader(out, width, height, writeAlpha);
+
+        // TGA rows run bottom to top
+        byte[] row = new byte[width * (writeAlpha ? 4 : 3)];
+        for (int y = height - 1; y >= 0; y--) {
+            int offset = y * width * 4;
+            for (int x = 0, i = 0; x < width; x++, offset += 4) {
+                row[i++] = pixels.get(offset + 2);
+                row[i++] = pixels.get(offset + 1);
+                row[i++] = pixels.get(offset);
+                if (writeAlpha) {
+                    row[i++] = pixels.get(offset + 3);
+                }
+            }
+            out.write(row);
+        }
+
+        out.close();
+    }
+
+    /**
+     * Write the TGA header for an uncompressed true colour image
+     *
+     * @param out
+     *            The stream to write the header to
+     * @param width
+     *            The width of the image
+     * @param height
+     *            The height of the image
+     * @param writeAlpha
+     *            True if the image includes an alpha channel
+     * @throws IOException
+     *             Indicates a failure to write the header
+     */
+    private void writeHeader(DataOutputStream out, int width, int height, boolean writeAlpha) throws IOException {
         // ID Length
         out.writeByte((byte) 0);
 
@@ -52,8 +114,8 @@ public class TGAWriter implements ImageWriter {
         out.writeShort(flipEndian((short) 0));
 
         // Width, Height, Depth
-        out.writeShort(flipEndian((short) image.getWidth()));
-        out.writeShort(flipEndian((short) image.getHeight()));
+        out.writeShort(flipEndian((short) width));
+        out.writeShort(flipEndian((short) height));
         if (writeAlpha) {
             out.writeByte((byte) 32);
             // Image Descriptor (can't be 0 since we're using 32-bit TGAs)
@@ -65,23 +127,5 @@ public class TGAWriter implements ImageWriter {
             // needs to not have 0x20 set to indicate it's not a flipped image
             out.writeByte((byte) 0);
         }
-
-        // Write out the image data
-        Color c;
-
-        for (int y = image.getHeight() - 1; y <= 0; y--) {
-            for (int x = 0; x < image.getWidth(); x++) {
-                c = image.getColor(x, y);
-
-                out.writeByte((byte) (c.b * 255.0f));
-                out.writeByte((byte) (c.g * 255.0f));
-                out.writeByte((byte) (c.r * 255.0f));
-                if (writeAlpha) {
-                    out.writeByte((byte) (c.a * 255.0f));
-                }
-            }
-        }
-
-        out.close();
     }
 }
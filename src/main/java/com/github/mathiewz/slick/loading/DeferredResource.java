@@ -18,6 +18,27 @@ public interface DeferredResource {
      */
     public void load() throws IOException;
 
+    /**
+     * Do the part of loading that doesn't need the OpenGL context, such as decoding
+     * image data. This may be called from a worker thread before {@link #load()} and
+     * must be safe to call more than once.
+     *
+     * @throws IOException
+     *             Indicates a failure to decode the resource
+     */
+    public default void decode() throws IOException {
+        // nothing to do off the OpenGL thread by default
+    }
+
+    /**
+     * Check if the part of loading that doesn't need the OpenGL context is complete
+     *
+     * @return True if {@link #load()} can be called without waiting on decoding
+     */
+    public default boolean isDecoded() {
+        return true;
+    }
+
     /**
      * Get a description of the resource to be loaded
      *
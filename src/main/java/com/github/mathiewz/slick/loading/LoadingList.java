@@ -1,6 +1,10 @@
 package com.github.mathiewz.slick.loading;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.github.mathiewz.slick.openal.SoundStore;
 import com.github.mathiewz.slick.opengl.InternalTextureLoader;
@@ -10,11 +14,19 @@ import com.github.mathiewz.slick.util.Log;
  * A central list where all deferred loading resoures end up when deferred loading is in use. Each
  * texture and sound loaded will be put in this list and can be loaded in one by one
  *
+ * When decode threads are configured, resources are decoded on a pool of worker threads
+ * as soon as they're added, leaving only the upload to the card for the OpenGL thread.
+ * {@link #loadWithin(long)} then uploads as many decoded resources as fit in a frame.
+ *
  * @author kevin
  */
 public class LoadingList {
     /** The single instance of this list */
     private static LoadingList single = new LoadingList();
+    /** The pool of threads decoding resources or null if resources are decoded as they're loaded */
+    private static ExecutorService decoders;
+    /** The number of threads decoding resources */
+    private static int decodeThreads;
 
     /**
      * Get the single global loading list
@@ -47,6 +59,64 @@ public class LoadingList {
         return InternalTextureLoader.get().isDeferredLoading();
     }
 
+    /**
+     * Set the number of worker threads used to decode resources ahead of them being
+     * loaded. Resources already waiting in the list are handed to the new threads.
+     *
+     * @param threads
+     *            The number of threads to decode with, or zero to decode on the OpenGL thread as each resource is loaded
+     */
+    public static void setDecodeThreads(int threads) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("Number of decode threads can not be negative: " + threads);
+        }
+        if (decoders != null) {
+            decoders.shutdown();
+            decoders = null;
+        }
+        decodeThreads = threads;
+        if (threads > 0) {
+            AtomicInteger count = new AtomicInteger();
+            decoders = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "Slick Decoder " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            single.deferred.forEach(LoadingList::decode);
+        }
+    }
+
+    /**
+     * Get the number of worker threads used to decode resources
+     *
+     * @return The number of threads decoding, zero if resources are decoded as they're loaded
+     */
+    public static int getDecodeThreads() {
+        return decodeThreads;
+    }
+
+    /**
+     * Hand a resource to the decode threads
+     *
+     * @param resource
+     *            The resource to decode
+     */
+    private static void decode(DeferredResource resource) {
+        if (decoders == null || resource.isDecoded()) {
+            return;
+        }
+        decoders.execute(() -> {
+            try {
+                resource.decode();
+            } catch (IOException e) {
+                // reported when the resource is loaded
+                Log.debug("Failed to decode " + resource.getDescription() + ": " + e.getMessage());
+            } catch (RuntimeException e) {
+                Log.error(e);
+            }
+        });
+    }
+
     /** The list of deferred resources to load */
     private final ArrayList<DeferredResource> deferred = new ArrayList<>();
     /** The total number of elements that have been added - does not go down as elements are removed */
@@ -67,6 +137,7 @@ public class LoadingList {
     public void add(DeferredResource resource) {
         total++;
         deferred.add(resource);
+        decode(resource);
     }
 
     /**
@@ -112,4 +183,33 @@ public class LoadingList {
 
         return deferred.remove(0);
     }
+
+    /**
+     * Load resources from the list in order until the time given has been used up.
+     * At least one resource is loaded unless the next is still being decoded by the
+     * decode threads, in which case loading stops for this call rather than blocking.
+     *
+     * @param millis
+     *            The time that may be spent loading in milliseconds
+     * @return The number of resources loaded
+     * @throws IOException
+     *             Indicates a failure to load a resource
+     */
+    public int loadWithin(long millis) throws IOException {
+        long end = System.nanoTime() + millis * 1000000L;
+        int loaded = 0;
+        while (!deferred.isEmpty()) {
+            DeferredResource next = deferred.get(0);
+            if (decoders != null && !next.isDecoded()) {
+                break;
+            }
+            deferred.remove(0);
+            next.load();
+            loaded++;
+            if (System.nanoTime() >= end) {
+                break;
+            }
+        }
+        return loaded;
+    }
 }
@@ -0,0 +1,280 @@
+package com.github.mathiewz.slick.opengl;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.github.mathiewz.slick.SlickException;
+import com.github.mathiewz.slick.util.Log;
+import com.github.mathiewz.slick.util.ResourceLoader;
+
+/**
+ * A cache of decoded image data held on disk. Each entry stores the raw pixel data
+ * produced by decoding an image resource, behind a small header recording the
+ * dimensions of the image and the size and modification time of the resource it was
+ * decoded from. A hit maps the entry into memory and the mapped pixels are passed
+ * straight to the card, skipping decoding altogether.
+ *
+ * Entries are only used while the size and modification time of the resource match,
+ * so changed resources are decoded again and their entry replaced. Any failure reading
+ * or writing the cache is logged and the image decoded as normal.
+ *
+ * @author mathiewz
+ */
+public class DecodedImageCache {
+    /** The marker at the start of each entry */
+    private static final int MAGIC = 0x534C4B54;
+    /** The version of the entry format */
+    private static final int VERSION = 1;
+    /** The extension given to entries */
+    private static final String EXTENSION = ".pix";
+
+    /** The directory holding the entries */
+    private final File directory;
+
+    /**
+     * Create a new cache
+     *
+     * @param directory
+     *            The directory to hold the entries in, created if it doesn't exist
+     */
+    public DecodedImageCache(File directory) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new SlickException("Unable to create image cache directory: " + directory);
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Get the directory holding the entries
+     *
+     * @return The directory holding the entries
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Remove all the entries from the cache
+     */
+    public void clear() {
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (entries != null) {
+            for (File entry : entries) {
+                if (!entry.delete()) {
+                    Log.warn("Unable to delete image cache entry: " + entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the decoded data for an image resource
+     *
+     * @param resourceName
+     *            The name of the resource the image is loaded from
+     * @param flipped
+     *            True if the image is flipped on the y-axis while loading
+     * @param transparent
+     *            The colour interpreted as transparent or null if none
+     * @return The decoded image mapped from the cache or null if there's no up to date entry
+     */
+    ImageData get(String resourceName, boolean flipped, int[] transparent) {
+        Source source = locate(resourceName, flipped, transparent);
+        if (source == null) {
+            return null;
+        }
+        File file = getFile(source.key);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                return null;
+            }
+            byte[] key = new byte[mapped.getInt()];
+            mapped.get(key);
+            if (!source.key.equals(new String(key, StandardCharsets.UTF_8)) || mapped.getLong() != source.size || mapped.getLong() != source.modified) {
+                return null;
+            }
+            int depth = mapped.getInt();
+            int width = mapped.getInt();
+            int height = mapped.getInt();
+            int texWidth = mapped.getInt();
+            int texHeight = mapped.getInt();
+            int length = mapped.getInt();
+            if (length != mapped.remaining()) {
+                return null;
+            }
+            ByteBuffer pixels = mapped.slice();
+            return new DecodedImageData(depth, width, height, texWidth, texHeight, pixels);
+        } catch (IOException | RuntimeException e) {
+            Log.warn("Unable to read image cache entry for " + resourceName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Store the decoded data for an image resource
+     *
+     * @param resourceName
+     *            The name of the resource the image was loaded from
+     * @param flipped
+     *            True if the image was flipped on the y-axis while loading
+     * @param transparent
+     *            The colour interpreted as transparent or null if none
+     * @param data
+     *            The decoded image
+     */
+    void put(String resourceName, boolean flipped, int[] transparent, ImageData data) {
+        Source source = locate(resourceName, flipped, transparent);
+        if (source == null) {
+            return;
+        }
+
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory.toPath(), "entry", ".tmp");
+            ByteBuffer pixels = data.getImageBufferData().duplicate();
+            pixels.rewind();
+            byte[] key = source.key.getBytes(StandardCharsets.UTF_8);
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                DataOutputStream header = new DataOutputStream(out);
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeInt(key.length);
+                header.write(key);
+                header.writeLong(source.size);
+                header.writeLong(source.modified);
+                header.writeInt(data.getDepth());
+                header.writeInt(data.getWidth());
+                header.writeInt(data.getHeight());
+                header.writeInt(data.getTexWidth());
+                header.writeInt(data.getTexHeight());
+                header.writeInt(pixels.remaining());
+                header.flush();
+                while (pixels.hasRemaining()) {
+                    channel.write(pixels);
+                }
+            }
+
+            Path target = getFile(source.key).toPath();
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.warn("Unable to write image cache entry for " + resourceName + ": " + e.getMessage());
+            if (temp != null) {
+                temp.toFile().delete();
+            }
+        }
+    }
+
+    /**
+     * Get the file an entry is stored in
+     *
+     * @param key
+     *            The key of the entry
+     * @return The file holding the entry
+     */
+    private File getFile(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2 + EXTENSION.length());
+            for (byte b : digest) {
+                name.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return new File(directory, name.append(EXTENSION).toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new SlickException("SHA-1 is not available", e);
+        }
+    }
+
+    /**
+     * Locate the resource an image is loaded from
+     *
+     * @param resourceName
+     *            The name of the resource the image is loaded from
+     * @param flipped
+     *            True if the image is flipped on the y-axis while loading
+     * @param transparent
+     *            The colour interpreted as transparent or null if none
+     * @return The details of the resource or null if it can't be located
+     */
+    private static Source locate(String resourceName, boolean flipped, int[] transparent) {
+        try {
+            URL url;
+            File file = new File(resourceName);
+            if (file.isAbsolute() && file.isFile()) {
+                url = file.toURI().toURL();
+            } else {
+                url = ResourceLoader.getResource(resourceName);
+            }
+
+            URLConnection connection = url.openConnection();
+            long size = connection.getContentLengthLong();
+            long modified = connection.getLastModified();
+            connection.getInputStream().close();
+            if (size < 0) {
+                return null;
+            }
+
+            String key = url + ":" + flipped;
+            if (transparent != null) {
+                key += ":" + transparent[0] + ":" + transparent[1] + ":" + transparent[2];
+            }
+            return new Source(key, size, modified);
+        } catch (IOException | SlickException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The details of a resource an image is loaded from
+     */
+    private static class Source {
+        /** The key identifying the entry for the resource */
+        private final String key;
+        /** The size of the resource in bytes */
+        private final long size;
+        /** The time the resource was last modified */
+        private final long modified;
+
+        /**
+         * Create the details of a resource
+         *
+         * @param key
+         *            The key identifying the entry for the resource
+         * @param size
+         *            The size of the resource in bytes
+         * @param modified
+         *            The time the resource was last modified
+         */
+        Source(String key, long size, long modified) {
+            this.key = key;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+}
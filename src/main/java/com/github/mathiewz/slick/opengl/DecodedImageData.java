@@ -0,0 +1,109 @@
+package com.github.mathiewz.slick.opengl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Image data that has already been decoded and holds on to its pixel data, ready
+ * to be uploaded to a texture.
+ *
+ * @author mathiewz
+ */
+class DecodedImageData implements ImageData {
+    /** The colour depth of the image */
+    private final int depth;
+    /** The width of the image */
+    private final int width;
+    /** The height of the image */
+    private final int height;
+    /** The width of the texture the image is held in */
+    private final int texWidth;
+    /** The height of the texture the image is held in */
+    private final int texHeight;
+    /** The decoded pixel data */
+    private final ByteBuffer buffer;
+
+    /**
+     * Create decoded image data from an image that's been loaded
+     *
+     * @param data
+     *            The image data describing the image
+     * @param buffer
+     *            The pixel data the image was decoded into
+     */
+    DecodedImageData(ImageData data, ByteBuffer buffer) {
+        this(data.getDepth(), data.getWidth(), data.getHeight(), data.getTexWidth(), data.getTexHeight(), buffer);
+    }
+
+    /**
+     * Create decoded image data
+     *
+     * @param depth
+     *            The colour depth of the image
+     * @param width
+     *            The width of the image
+     * @param height
+     *            The height of the image
+     * @param texWidth
+     *            The width of the texture the image is held in
+     * @param texHeight
+     *            The height of the texture the image is held in
+     * @param buffer
+     *            The decoded pixel data
+     */
+    DecodedImageData(int depth, int width, int height, int texWidth, int texHeight, ByteBuffer buffer) {
+        this.depth = depth;
+        this.width = width;
+        this.height = height;
+        this.texWidth = texWidth;
+        this.texHeight = texHeight;
+        this.buffer = buffer;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.ImageData#getDepth()
+     */
+    @Override
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.ImageData#getWidth()
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.ImageData#getHeight()
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.ImageData#getTexWidth()
+     */
+    @Override
+    public int getTexWidth() {
+        return texWidth;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.ImageData#getTexHeight()
+     */
+    @Override
+    public int getTexHeight() {
+        return texHeight;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.ImageData#getImageBufferData()
+     */
+    @Override
+    public ByteBuffer getImageBufferData() {
+        return buffer;
+    }
+}
@@ -11,6 +11,9 @@ import com.github.mathiewz.slick.loading.LoadingList;
  * A texture proxy that can be used to load a texture at a later date while still
  * allowing elements to reference it
  *
+ * Loading happens in two stages. The image is first decoded into pixel data, which
+ * may be done on any thread, and is then uploaded to the card on the OpenGL thread.
+ *
  * @author kevin
  */
 public class DeferredTexture extends TextureImpl implements DeferredResource {
@@ -26,6 +29,10 @@ public class DeferredTexture extends TextureImpl implements DeferredResource {
     private TextureImpl target;
     /** The color to be transparent */
     private final int[] trans;
+    /** The image decoded ready for upload */
+    private ImageData imageData;
+    /** The failure that occured decoding the image or null if none */
+    private IOException failure;
     
     /**
      * Create a new deferred texture
@@ -56,10 +63,36 @@ public class DeferredTexture extends TextureImpl implements DeferredResource {
      */
     @Override
     public void load() throws IOException {
-        boolean before = InternalTextureLoader.get().isDeferredLoading();
-        InternalTextureLoader.get().setDeferredLoading(false);
-        target = InternalTextureLoader.get().getTexture(in, resourceName, flipped, filter, trans);
-        InternalTextureLoader.get().setDeferredLoading(before);
+        decode();
+        target = InternalTextureLoader.get().getTexture(imageData, imageData.getImageBufferData(), resourceName, flipped, filter, trans);
+    }
+    
+    /**
+     * @see com.github.mathiewz.slick.loading.DeferredResource#decode()
+     */
+    @Override
+    public synchronized void decode() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (imageData != null) {
+            return;
+        }
+        
+        try {
+            imageData = InternalTextureLoader.get().decode(in, resourceName, flipped, trans);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+    
+    /**
+     * @see com.github.mathiewz.slick.loading.DeferredResource#isDecoded()
+     */
+    @Override
+    public synchronized boolean isDecoded() {
+        return imageData != null || failure != null;
     }
     
     /**
@@ -26,7 +26,7 @@ public class ImageDataFactory {
      * Check PNG loader property. If set the native PNG loader will
      * not be used.
      */
-    private static void checkProperty() {
+    private static synchronized void checkProperty() {
         if (!pngLoaderPropertyChecked) {
             pngLoaderPropertyChecked = true;
             PrivilegedAction<Void> action = () -> {
@@ -9,6 +9,9 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
@@ -16,12 +19,21 @@ import org.lwjgl.opengl.GL11;
 import com.github.mathiewz.slick.SlickException;
 import com.github.mathiewz.slick.opengl.renderer.Renderer;
 import com.github.mathiewz.slick.opengl.renderer.SGL;
+import com.github.mathiewz.slick.util.Log;
 import com.github.mathiewz.slick.util.ResourceLoader;
 
 /**
  * A texture loaded based on many old versions that will load image data from a file
  * and produce OpenGL textures.
  *
+ * The loader can be given a budget of texture memory. Textures loaded from resources
+ * are tracked in the order they were last bound and, once the budget is exceeded, the
+ * least recently bound are evicted from the card. An evicted texture keeps its pixel
+ * data and its texture ID, and is uploaded again the next time it's bound. Generated
+ * textures are never evicted since their contents may have been rendered to, and
+ * textures referred to by compiled display lists should be pinned with {@link #pin(Texture)}
+ * since calling the list won't upload them again.
+ *
  * @see ImageData
  *
  * @author kevin
@@ -39,6 +51,20 @@ public class InternalTextureLoader {
     private int dstPixelFormat = GL11.GL_RGBA8;
     /** True if we're using deferred loading */
     private boolean deferred;
+    /** The resident textures that may be evicted and their size in bytes, least recently bound first */
+    private final LinkedHashMap<TextureImpl, Long> resident = new LinkedHashMap<>(16, 0.75f, true);
+    /** The number of bytes of texture memory we're allowed to use, or zero for no limit */
+    private long budget;
+    /** The number of bytes used by the resident textures */
+    private long residentBytes;
+    /** The number of textures evicted to stay within the budget */
+    private long evictions;
+    /** The number of evicted textures uploaded again when bound */
+    private long reloads;
+    /** The textures that must stay resident and the number of times each has been pinned */
+    private final Map<TextureImpl, Integer> pinned = new HashMap<>();
+    /** The cache of decoded image data on disk or null if images are always decoded */
+    private volatile DecodedImageCache decodedCache;
 
     /**
      * Create a new texture loader based on the game panel
@@ -92,6 +118,194 @@ public class InternalTextureLoader {
     public void clear() {
         texturesLinear.clear();
         texturesNearest.clear();
+        resident.clear();
+        residentBytes = 0;
+        pinned.clear();
+    }
+
+    /**
+     * Set the amount of texture memory textures loaded from resources may use. Once
+     * the budget is exceeded the least recently bound textures are evicted until it's
+     * met again.
+     *
+     * @param budget
+     *            The number of bytes of texture memory to use, or zero for no limit
+     */
+    public void setTextureBudget(long budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("Texture budget can not be negative: " + budget);
+        }
+        this.budget = budget;
+        evict(null);
+    }
+
+    /**
+     * Get the amount of texture memory textures loaded from resources may use
+     *
+     * @return The number of bytes of texture memory to use, or zero for no limit
+     */
+    public long getTextureBudget() {
+        return budget;
+    }
+
+    /**
+     * Get the amount of texture memory used by the resident textures loaded from resources
+     *
+     * @return The number of bytes used
+     */
+    public long getResidentBytes() {
+        return residentBytes;
+    }
+
+    /**
+     * Get the number of textures that have been evicted to stay within the budget
+     *
+     * @return The number of evictions
+     */
+    public long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Get the number of evicted textures that have been uploaded again when bound
+     *
+     * @return The number of reloads
+     */
+    public long getReloadCount() {
+        return reloads;
+    }
+
+    /**
+     * Start tracking a texture against the budget
+     *
+     * @param texture
+     *            The texture that has just been uploaded
+     */
+    private void track(TextureImpl texture) {
+        long bytes = (long) texture.getTextureWidth() * texture.getTextureHeight() * (dstPixelFormat == GL11.GL_RGBA16 ? 8 : 4);
+        resident.put(texture, bytes);
+        residentBytes += bytes;
+        evict(texture);
+    }
+
+    /**
+     * Stop tracking a texture against the budget
+     *
+     * @param texture
+     *            The texture that's been released
+     */
+    void untrack(TextureImpl texture) {
+        Long bytes = resident.remove(texture);
+        if (bytes != null) {
+            residentBytes -= bytes;
+        }
+    }
+
+    /**
+     * Notify the loader that a texture is being bound. Evicted textures are uploaded
+     * again and the texture becomes the most recently used. Binding through
+     * {@link TextureImpl#bind()} does this already, code binding texture IDs directly
+     * must call it before each bind.
+     *
+     * @param texture
+     *            The texture being bound
+     */
+    public void bound(Texture texture) {
+        if (!(texture instanceof TextureImpl)) {
+            return;
+        }
+        TextureImpl impl = (TextureImpl) texture;
+        if (impl.isEvicted()) {
+            impl.restore();
+            reloads++;
+            track(impl);
+        } else if (budget > 0) {
+            resident.get(impl);
+        }
+    }
+
+    /**
+     * Keep a texture on the card whatever the budget, uploading it again if it's been
+     * evicted. Needed while display lists that bind the texture are in use, since
+     * calling them never uploads it again. Each call must be matched by a call to
+     * {@link #unpin(Texture)}.
+     *
+     * @param texture
+     *            The texture to keep on the card
+     */
+    public void pin(Texture texture) {
+        if (!(texture instanceof TextureImpl)) {
+            return;
+        }
+        TextureImpl impl = (TextureImpl) texture;
+        pinned.merge(impl, 1, Integer::sum);
+        if (impl.isEvicted()) {
+            bound(impl);
+        }
+    }
+
+    /**
+     * Allow a pinned texture to be evicted again once it's been unpinned as many
+     * times as it was pinned
+     *
+     * @param texture
+     *            The texture to release
+     */
+    public void unpin(Texture texture) {
+        Integer count = pinned.get(texture);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            pinned.put((TextureImpl) texture, count - 1);
+        } else {
+            pinned.remove(texture);
+            evict(null);
+        }
+    }
+
+    /**
+     * Evict the least recently bound textures until the budget is met
+     *
+     * @param keep
+     *            The texture that must stay resident or null if none
+     */
+    private void evict(TextureImpl keep) {
+        if (budget == 0) {
+            return;
+        }
+        Iterator<Map.Entry<TextureImpl, Long>> entries = resident.entrySet().iterator();
+        while (residentBytes > budget && entries.hasNext()) {
+            Map.Entry<TextureImpl, Long> entry = entries.next();
+            TextureImpl texture = entry.getKey();
+            if (texture == keep || pinned.containsKey(texture)) {
+                continue;
+            }
+            entries.remove();
+            residentBytes -= entry.getValue();
+            evictions++;
+            texture.evict();
+        }
+    }
+
+    /**
+     * Set the cache decoded image data is stored in on disk. Images found in the cache
+     * are mapped into memory and uploaded directly instead of being decoded again.
+     *
+     * @param decodedCache
+     *            The cache to use or null to always decode images
+     */
+    public void setDecodedCache(DecodedImageCache decodedCache) {
+        this.decodedCache = decodedCache;
+    }
+
+    /**
+     * Get the cache decoded image data is stored in on disk
+     *
+     * @return The cache in use or null if images are always decoded
+     */
+    public DecodedImageCache getDecodedCache() {
+        return decodedCache;
     }
 
     /**
@@ -235,64 +449,163 @@ public class InternalTextureLoader {
             return new DeferredTexture(in, resourceName, flipped, filter, transparent);
         }
 
-        HashMap<String, TextureImpl> hash = filter == GL11.GL_NEAREST ? texturesNearest : texturesLinear;
+        TextureImpl tex = getCachedTexture(resourceName, flipped, filter, transparent);
+        if (tex != null) {
+            return tex;
+        }
 
-        String resName = resourceName;
-        if (transparent != null) {
-            resName += ":" + transparent[0] + ":" + transparent[1] + ":" + transparent[2];
+        checkContext();
+
+        ImageData imageData = decode(in, resourceName, flipped, transparent);
+
+        return getTexture(imageData, imageData.getImageBufferData(), resourceName, flipped, filter, transparent);
+    }
+
+    /**
+     * Decode an image file into pixel data ready to be uploaded, using the decoded
+     * image cache if one is set. This doesn't touch OpenGL and so may be called from
+     * any thread.
+     *
+     * @param in
+     *            The stream from which we can load the image
+     * @param resourceName
+     *            The name of the resource the image is loaded from
+     * @param flipped
+     *            True if we should flip the image on the y-axis while loading
+     * @param transparent
+     *            The colour to interpret as transparent or null if none
+     * @return The decoded image
+     * @throws IOException
+     *             Indicates a failure to load the image
+     */
+    public ImageData decode(InputStream in, String resourceName, boolean flipped, int[] transparent) throws IOException {
+        DecodedImageCache cache = decodedCache;
+        if (cache != null) {
+            ImageData cached = cache.get(resourceName, flipped, transparent);
+            if (cached != null) {
+                in.close();
+                return cached;
+            }
         }
-        resName += ":" + flipped;
 
-        TextureImpl tex = hash.get(resName);
+        LoadableImageData imageData = ImageDataFactory.getImageDataFor(resourceName);
+        ByteBuffer textureBuffer = imageData.loadImage(new BufferedInputStream(in), flipped, transparent);
+        ImageData decoded = new DecodedImageData(imageData, textureBuffer);
+
+        if (cache != null) {
+            cache.put(resourceName, flipped, transparent, decoded);
+        }
+        return decoded;
+    }
+
+    /**
+     * Get a texture from image data that has already been decoded, uploading it if
+     * it's not already in the cache. This must be called on the OpenGL thread.
+     *
+     * @param imageData
+     *            The image data describing the decoded image
+     * @param textureBuffer
+     *            The decoded pixel data
+     * @param resourceName
+     *            The name to give this image in the internal cache
+     * @param flipped
+     *            True if the image was flipped on the y-axis while loading
+     * @param filter
+     *            The filter to use when scaling the texture
+     * @param transparent
+     *            The colour interpreted as transparent or null if none
+     * @return The texture loaded
+     * @throws IOException
+     *             Indicates the texture is too big for the hardware
+     */
+    TextureImpl getTexture(ImageData imageData, ByteBuffer textureBuffer, String resourceName, boolean flipped, int filter, int[] transparent) throws IOException {
+        TextureImpl tex = getCachedTexture(resourceName, flipped, filter, transparent);
         if (tex != null) {
             return tex;
-        } else {
-            hash.remove(resName);
         }
 
-        // horrible test until I can find something more suitable
-        try {
-            GL.glGetError();
-        } catch (NullPointerException e) {
-            throw new SlickException("Image based resources must be loaded as part of init() or the game loop. They cannot be loaded before initialisation.", e);
-        }
+        checkContext();
 
-        TextureImpl texture = getTexture(in, resourceName, GL11.GL_TEXTURE_2D, filter, filter, flipped, transparent);
+        TextureImpl texture = getTexture(imageData, textureBuffer, resourceName, GL11.GL_TEXTURE_2D, filter, filter);
 
+        String resName = getCacheName(resourceName, flipped, transparent);
         texture.setCacheName(resName);
-        hash.put(resName, texture);
+        (filter == GL11.GL_NEAREST ? texturesNearest : texturesLinear).put(resName, texture);
+        track(texture);
 
         return texture;
     }
 
     /**
-     * Get a texture from a image file
+     * Get the name a texture is stored against in the cache
      *
-     * @param in
-     *            The stream from which we can load the image
      * @param resourceName
-     *            The name to give this image in the internal cache
+     *            The name of the resource the texture was loaded from
      * @param flipped
-     *            True if we should flip the image on the y-axis while loading
+     *            True if the image was flipped on the y-axis while loading
+     * @param transparent
+     *            The colour interpreted as transparent or null if none
+     * @return The name of the texture in the cache
+     */
+    private static String getCacheName(String resourceName, boolean flipped, int[] transparent) {
+        String resName = resourceName;
+        if (transparent != null) {
+            resName += ":" + transparent[0] + ":" + transparent[1] + ":" + transparent[2];
+        }
+        return resName + ":" + flipped;
+    }
+
+    /**
+     * Get a texture that has already been loaded
+     *
+     * @param resourceName
+     *            The name of the resource the texture was loaded from
+     * @param flipped
+     *            True if the image was flipped on the y-axis while loading
+     * @param filter
+     *            The filter used when scaling the texture
+     * @param transparent
+     *            The colour interpreted as transparent or null if none
+     * @return The texture from the cache or null if it's not been loaded
+     */
+    private TextureImpl getCachedTexture(String resourceName, boolean flipped, int filter, int[] transparent) {
+        HashMap<String, TextureImpl> hash = filter == GL11.GL_NEAREST ? texturesNearest : texturesLinear;
+        return hash.get(getCacheName(resourceName, flipped, transparent));
+    }
+
+    /**
+     * Check that there's an OpenGL context textures can be created in
+     */
+    private static void checkContext() {
+        // horrible test until I can find something more suitable
+        try {
+            GL.glGetError();
+        } catch (NullPointerException e) {
+            throw new SlickException("Image based resources must be loaded as part of init() or the game loop. They cannot be loaded before initialisation.", e);
+        }
+    }
+
+    /**
+     * Create a texture from decoded image data
+     *
+     * @param imageData
+     *            The image data describing the decoded image
+     * @param textureBuffer
+     *            The decoded pixel data
+     * @param resourceName
+     *            The name of the resource the image was loaded from
      * @param target
      *            The texture target we're loading this texture into
      * @param minFilter
      *            The scaling down filter
      * @param magFilter
      *            The scaling up filter
-     * @param transparent
-     *            The colour to interpret as transparent or null if none
-     * @return The texture loaded
+     * @return The texture created
      * @throws IOException
-     *             Indicates a failure to load the image
+     *             Indicates the texture is too big for the hardware
      */
-    private TextureImpl getTexture(InputStream in, String resourceName, int target, int magFilter, int minFilter, boolean flipped, int[] transparent) throws IOException {
+    private TextureImpl getTexture(ImageData imageData, ByteBuffer textureBuffer, String resourceName, int target, int magFilter, int minFilter) throws IOException {
         // create the texture ID for this texture
-        ByteBuffer textureBuffer;
-
-        LoadableImageData imageData = ImageDataFactory.getImageDataFor(resourceName);
-        textureBuffer = imageData.loadImage(new BufferedInputStream(in), flipped, transparent);
-
         int textureID = createTextureID();
         TextureImpl texture = new TextureImpl(resourceName, target, textureID);
         // bind this texture
@@ -472,8 +785,8 @@ public class InternalTextureLoader {
      * Reload all the textures loaded in this loader
      */
     public void reload() {
-        texturesLinear.values().forEach(TextureImpl::reload);
-        texturesNearest.values().forEach(TextureImpl::reload);
+        texturesLinear.values().stream().filter(texture -> !texture.isEvicted()).forEach(TextureImpl::reload);
+        texturesNearest.values().stream().filter(texture -> !texture.isEvicted()).forEach(TextureImpl::reload);
     }
 
     /**
@@ -492,8 +805,30 @@ public class InternalTextureLoader {
      * @return The ID of the newly created texture
      */
     public int reload(TextureImpl texture, int srcPixelFormat, int minFilter, int magFilter, ByteBuffer textureBuffer) {
-        int target = GL11.GL_TEXTURE_2D;
         int textureID = createTextureID();
+        upload(texture, textureID, srcPixelFormat, minFilter, magFilter, textureBuffer);
+
+        return textureID;
+    }
+
+    /**
+     * Upload a texture's pixel data into an existing texture ID
+     *
+     * @param texture
+     *            The texture being uploaded
+     * @param textureID
+     *            The ID to upload the texture into
+     * @param srcPixelFormat
+     *            The source pixel format
+     * @param minFilter
+     *            The minification filter
+     * @param magFilter
+     *            The magnification filter
+     * @param textureBuffer
+     *            The pixel data
+     */
+    void upload(TextureImpl texture, int textureID, int srcPixelFormat, int minFilter, int magFilter, ByteBuffer textureBuffer) {
+        int target = GL11.GL_TEXTURE_2D;
         GL.glBindTexture(target, textureID);
 
         GL.glTexParameteri(target, GL11.GL_TEXTURE_MIN_FILTER, minFilter);
@@ -501,7 +836,18 @@ public class InternalTextureLoader {
 
         // produce a texture from the byte buffer
         GL.glTexImage2D(target, 0, dstPixelFormat, texture.getTextureWidth(), texture.getTextureHeight(), 0, srcPixelFormat, GL11.GL_UNSIGNED_BYTE, textureBuffer);
+    }
 
-        return textureID;
+    /**
+     * Release the storage of an evicted texture while keeping its ID, so anything
+     * holding on to the ID still refers to the texture once it's uploaded again
+     *
+     * @param textureID
+     *            The ID of the texture being evicted
+     */
+    void discard(int textureID) {
+        Log.debug("Evicting texture: " + textureID);
+        GL.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
+        GL.glTexImage2D(GL11.GL_TEXTURE_2D, 0, dstPixelFormat, 0, 0, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, null);
     }
 }
\ No newline at end of file
@@ -79,6 +79,11 @@ public class PNGDecoder {
     private static final byte COLOR_GREYALPHA = 4;
     private static final byte COLOR_TRUEALPHA = 6;
 
+    /** The scanline buffers reused by each thread decoding straight into the destination */
+    private static final ThreadLocal<byte[][]> LINES = ThreadLocal.withInitial(() -> new byte[3][0]);
+    /** The inflater reused by each thread decoding straight into the destination */
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
     private final InputStream input;
     private final CRC32 crc;
     private final byte[] buffer;
@@ -189,6 +194,11 @@ public class PNGDecoder {
     }
 
     public void decode(ByteBuffer buffer, int stride, Format fmt) throws IOException {
+        if (colorType == COLOR_TRUEALPHA && fmt == RGBA || colorType == COLOR_TRUECOLOR && (fmt == RGB || fmt == RGBA)) {
+            decodeDirect(buffer, stride, fmt);
+            return;
+        }
+
         final int offset = buffer.position();
         final int lineSize = (width * bitdepth + 7) / 8 * bytesPerPixel;
         byte[] curLine = new byte[lineSize + 1];
@@ -199,7 +209,7 @@ public class PNGDecoder {
         try {
             for (int y = 0; y < height; y++) {
                 readChunkUnzip(inflater, curLine, 0, curLine.length);
-                unfilter(curLine, prevLine);
+                unfilter(curLine, prevLine, curLine.length);
 
                 buffer.position(offset + y * stride);
 
@@ -286,6 +296,87 @@ public class PNGDecoder {
         }
     }
 
+    /**
+     * Decode 8 bit RGB and RGBA images without per pixel conversion. Scanlines are
+     * inflated into buffers reused across decodes on the same thread, unfiltered in
+     * place and written to the destination with a single bulk put per line.
+     *
+     * @param buffer
+     *            The buffer to decode into
+     * @param stride
+     *            The distance between the start of each line in the buffer
+     * @param fmt
+     *            The format to decode into, RGB or RGBA
+     * @throws IOException
+     *             Indicates a failure to read the image data
+     */
+    private void decodeDirect(ByteBuffer buffer, int stride, Format fmt) throws IOException {
+        final int offset = buffer.position();
+        final int lineSize = width * bytesPerPixel;
+        final int length = lineSize + 1;
+        final boolean expand = colorType == COLOR_TRUECOLOR && fmt == RGBA;
+
+        byte[][] lines = LINES.get();
+        if (lines[0].length < length) {
+            lines[0] = new byte[length];
+            lines[1] = new byte[length];
+        }
+        if (expand && lines[2].length < width * 4) {
+            lines[2] = new byte[width * 4];
+        }
+        byte[] curLine = lines[0];
+        byte[] prevLine = lines[1];
+        byte[] outLine = lines[2];
+        Arrays.fill(prevLine, 0, length, (byte) 0);
+
+        final Inflater inflater = INFLATER.get();
+        try {
+            for (int y = 0; y < height; y++) {
+                readChunkUnzip(inflater, curLine, 0, length);
+                unfilter(curLine, prevLine, length);
+
+                buffer.position(offset + y * stride);
+                if (expand) {
+                    expandRGBtoRGBA(curLine, length, outLine);
+                    buffer.put(outLine, 0, width * 4);
+                } else {
+                    buffer.put(curLine, 1, lineSize);
+                }
+
+                byte[] tmp = curLine;
+                curLine = prevLine;
+                prevLine = tmp;
+            }
+        } finally {
+            inflater.reset();
+        }
+    }
+
+    private void expandRGBtoRGBA(byte[] curLine, int length, byte[] dst) {
+        int o = 0;
+        if (transPixel != null) {
+            byte tr = transPixel[1];
+            byte tg = transPixel[3];
+            byte tb = transPixel[5];
+            for (int i = 1; i < length; i += 3) {
+                byte r = curLine[i];
+                byte g = curLine[i + 1];
+                byte b = curLine[i + 2];
+                dst[o++] = r;
+                dst[o++] = g;
+                dst[o++] = b;
+                dst[o++] = r == tr && g == tg && b == tb ? 0 : (byte) 0xFF;
+            }
+        } else {
+            for (int i = 1; i < length; i += 3) {
+                dst[o++] = curLine[i];
+                dst[o++] = curLine[i + 1];
+                dst[o++] = curLine[i + 2];
+                dst[o++] = (byte) 0xFF;
+            }
+        }
+    }
+
     private void copy(ByteBuffer buffer, byte[] curLine) {
         buffer.put(curLine, 1, curLine.length - 1);
     }
@@ -492,60 +583,60 @@ public class PNGDecoder {
         }
     }
 
-    private void unfilter(byte[] curLine, byte[] prevLine) throws IOException {
+    private void unfilter(byte[] curLine, byte[] prevLine, int length) throws IOException {
         switch (curLine[0]) {
             case 0: // none
                 break;
             case 1:
-                unfilterSub(curLine);
+                unfilterSub(curLine, length);
                 break;
             case 2:
-                unfilterUp(curLine, prevLine);
+                unfilterUp(curLine, prevLine, length);
                 break;
             case 3:
-                unfilterAverage(curLine, prevLine);
+                unfilterAverage(curLine, prevLine, length);
                 break;
             case 4:
-                unfilterPaeth(curLine, prevLine);
+                unfilterPaeth(curLine, prevLine, length);
                 break;
             default:
                 throw new IOException("invalide filter type in scanline: " + curLine[0]);
         }
     }
 
-    private void unfilterSub(byte[] curLine) {
+    private void unfilterSub(byte[] curLine, int length) {
         final int bpp = bytesPerPixel;
-        for (int i = bpp + 1, n = curLine.length; i < n; ++i) {
+        for (int i = bpp + 1; i < length; ++i) {
             curLine[i] += curLine[i - bpp];
         }
     }
 
-    private void unfilterUp(byte[] curLine, byte[] prevLine) {
-        for (int i = 1, n = curLine.length; i < n; ++i) {
+    private void unfilterUp(byte[] curLine, byte[] prevLine, int length) {
+        for (int i = 1; i < length; ++i) {
             curLine[i] += prevLine[i];
         }
     }
 
-    private void unfilterAverage(byte[] curLine, byte[] prevLine) {
+    private void unfilterAverage(byte[] curLine, byte[] prevLine, int length) {
         final int bpp = bytesPerPixel;
 
         int i;
         for (i = 1; i <= bpp; ++i) {
             curLine[i] += (byte) ((prevLine[i] & 0xFF) >>> 1);
         }
-        for (int n = curLine.length; i < n; ++i) {
+        for (; i < length; ++i) {
             curLine[i] += (byte) ((prevLine[i] & 0xFF) + (curLine[i - bpp] & 0xFF) >>> 1);
         }
     }
 
-    private void unfilterPaeth(byte[] curLine, byte[] prevLine) {
+    private void unfilterPaeth(byte[] curLine, byte[] prevLine, int length) {
         final int bpp = bytesPerPixel;
 
         int i;
         for (i = 1; i <= bpp; ++i) {
             curLine[i] += prevLine[i];
         }
-        for (int n = curLine.length; i < n; ++i) {
+        for (; i < length; ++i) {
             int a = curLine[i - bpp] & 255;
             int b = prevLine[i] & 255;
             int c = prevLine[i - bpp] & 255;
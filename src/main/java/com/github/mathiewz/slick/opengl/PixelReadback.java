@@ -0,0 +1,330 @@
+package com.github.mathiewz.slick.opengl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.opengl.GLContext;
+
+import com.github.mathiewz.slick.SlickException;
+import com.github.mathiewz.slick.opengl.renderer.Renderer;
+import com.github.mathiewz.slick.opengl.renderer.SGL;
+import com.github.mathiewz.slick.util.Log;
+
+/**
+ * Reads pixels back from the frame buffer without stalling the pipeline. Each read is
+ * issued into a pixel buffer object and only mapped a few frames later, once the card
+ * has had time to complete it, so the render thread never waits on the transfer.
+ *
+ * Reads complete from {@link #update()}, which the game container calls once a frame
+ * on the OpenGL thread. Anything chained onto the returned futures with the non-async
+ * methods runs on that thread too, so slow work such as encoding should use the async
+ * variants. Never wait on a future from the OpenGL thread since it can only complete
+ * once the frame does.
+ *
+ * Where pixel buffer objects aren't supported reads fall back to a synchronous
+ * glReadPixels() and complete immediately.
+ *
+ * @author mathiewz
+ */
+public class PixelReadback {
+    /** The renderer to use for all GL operations */
+    private static final SGL GL = Renderer.get();
+    /** The single instance of the readback */
+    private static final PixelReadback readback = new PixelReadback();
+
+    /** The reads waiting for their data to arrive */
+    private final ArrayList<Request> pending = new ArrayList<>();
+    /** The pixel buffers free to be reused */
+    private final ArrayDeque<Slot> free = new ArrayDeque<>();
+    /** The number of frames to wait before mapping a read */
+    private int latency = 2;
+    /** The number of frames completed */
+    private long frame;
+    /** True if pixel buffer objects are available, null until checked */
+    private Boolean supported;
+
+    /**
+     * Get the single instance of the readback
+     *
+     * @return The single instance of the readback
+     */
+    public static PixelReadback get() {
+        return readback;
+    }
+
+    /**
+     * Set the number of frames to wait before reading back the data of a request
+     *
+     * @param latency
+     *            The number of frames to wait, at least one
+     */
+    public void setLatency(int latency) {
+        if (latency < 1) {
+            throw new IllegalArgumentException("Readback latency must be at least one frame: " + latency);
+        }
+        this.latency = latency;
+    }
+
+    /**
+     * Get the number of frames to wait before reading back the data of a request
+     *
+     * @return The number of frames to wait
+     */
+    public int getLatency() {
+        return latency;
+    }
+
+    /**
+     * Get the number of reads that haven't completed yet
+     *
+     * @return The number of reads pending
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Check if reads can be made asynchronously on the current context
+     *
+     * @return True if pixel buffer objects are supported
+     */
+    public boolean isSupported() {
+        if (supported == null) {
+            try {
+                supported = GLContext.getCapabilities().OpenGL21 || GLContext.getCapabilities().GL_ARB_pixel_buffer_object;
+            } catch (RuntimeException e) {
+                supported = false;
+            }
+            if (!supported) {
+                Log.warn("Pixel buffer objects are not supported, reading pixels synchronously");
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * Start reading an area of the frame buffer as RGBA bytes
+     *
+     * @param x
+     *            The x position of the area in window coordinates
+     * @param y
+     *            The y position of the bottom of the area in window coordinates
+     * @param width
+     *            The width of the area
+     * @param height
+     *            The height of the area
+     * @return The pixels of the area, top row first, once they've been read
+     */
+    public CompletableFuture<ByteBuffer> read(int x, int y, int width, int height) {
+        return read(x, y, width, height, BufferUtils.createByteBuffer(width * height * 4));
+    }
+
+    /**
+     * Start reading an area of the frame buffer as RGBA bytes into a given buffer
+     *
+     * @param x
+     *            The x position of the area in window coordinates
+     * @param y
+     *            The y position of the bottom of the area in window coordinates
+     * @param width
+     *            The width of the area
+     * @param height
+     *            The height of the area
+     * @param target
+     *            The buffer to fill with the pixels, which must not be touched until the read completes
+     * @return The target buffer holding the pixels of the area, top row first, once they've been read
+     */
+    public CompletableFuture<ByteBuffer> read(int x, int y, int width, int height, ByteBuffer target) {
+        CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+        int size = width * height * 4;
+        if (target.capacity() < size) {
+            throw new IllegalArgumentException("Readback buffer too small: " + target.capacity() + " < " + size);
+        }
+
+        if (!isSupported()) {
+            ByteBuffer pixels = BufferUtils.createByteBuffer(size);
+            GL.glReadPixels(x, y, width, height, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+            result.complete(flipRows(pixels, width, height, target));
+            return result;
+        }
+
+        Slot slot = obtain(size);
+        GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, slot.bufferID);
+        GL11.glReadPixels(x, y, width, height, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, 0L);
+        GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+
+        pending.add(new Request(slot, width, height, frame, target, result));
+        return result;
+    }
+
+    /**
+     * Move on to the next frame, completing any reads that have been waiting long enough
+     */
+    public void update() {
+        frame++;
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Iterator<Request> requests = pending.iterator();
+        while (requests.hasNext()) {
+            Request request = requests.next();
+            if (frame - request.frame >= latency) {
+                requests.remove();
+                complete(request);
+            }
+        }
+    }
+
+    /**
+     * Release the pixel buffers held for reuse
+     */
+    public void releaseBuffers() {
+        for (Slot slot : free) {
+            GL15.glDeleteBuffers(slot.bufferID);
+        }
+        free.clear();
+    }
+
+    /**
+     * Map the data of a read and complete it
+     *
+     * @param request
+     *            The read to complete
+     */
+    private void complete(Request request) {
+        int size = request.width * request.height * 4;
+        GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, request.slot.bufferID);
+        ByteBuffer mapped = GL15.glMapBuffer(GL21.GL_PIXEL_PACK_BUFFER, GL15.GL_READ_ONLY, size, null);
+        if (mapped == null) {
+            GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+            free.add(request.slot);
+            request.result.completeExceptionally(new SlickException("Unable to map pixel buffer for readback"));
+            return;
+        }
+
+        ByteBuffer pixels = flipRows(mapped, request.width, request.height, request.target);
+        GL15.glUnmapBuffer(GL21.GL_PIXEL_PACK_BUFFER);
+        GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+        free.add(request.slot);
+
+        request.result.complete(pixels);
+    }
+
+    /**
+     * Get a pixel buffer big enough for a read, reusing a free one where possible
+     *
+     * @param size
+     *            The number of bytes needed
+     * @return The pixel buffer to read into
+     */
+    private Slot obtain(int size) {
+        Slot slot = free.poll();
+        if (slot == null) {
+            slot = new Slot(GL15.glGenBuffers());
+        }
+        if (slot.capacity < size) {
+            GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, slot.bufferID);
+            GL15.glBufferData(GL21.GL_PIXEL_PACK_BUFFER, size, GL15.GL_STREAM_READ);
+            GL15.glBindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+            slot.capacity = size;
+        }
+        return slot;
+    }
+
+    /**
+     * Copy pixels read from OpenGL, which start at the bottom row, into a buffer
+     * starting at the top row
+     *
+     * @param source
+     *            The pixels as read
+     * @param width
+     *            The width of the area read
+     * @param height
+     *            The height of the area read
+     * @param pixels
+     *            The buffer to copy the pixels into
+     * @return The buffer holding the pixels top row first
+     */
+    private static ByteBuffer flipRows(ByteBuffer source, int width, int height, ByteBuffer pixels) {
+        int stride = width * 4;
+        pixels.clear();
+        ByteBuffer row = source.duplicate();
+        for (int y = height - 1; y >= 0; y--) {
+            row.limit(y * stride + stride).position(y * stride);
+            pixels.put(row);
+        }
+        pixels.flip();
+        return pixels;
+    }
+
+    /**
+     * A pixel buffer object reads are made into
+     */
+    private static class Slot {
+        /** The ID of the buffer object */
+        private final int bufferID;
+        /** The number of bytes allocated to the buffer */
+        private int capacity;
+
+        /**
+         * Create a new slot
+         *
+         * @param bufferID
+         *            The ID of the buffer object
+         */
+        Slot(int bufferID) {
+            this.bufferID = bufferID;
+        }
+    }
+
+    /**
+     * A read waiting for its data
+     */
+    private static class Request {
+        /** The pixel buffer the read was made into */
+        private final Slot slot;
+        /** The width of the area read */
+        private final int width;
+        /** The height of the area read */
+        private final int height;
+        /** The frame the read was made in */
+        private final long frame;
+        /** The buffer the pixels are copied into */
+        private final ByteBuffer target;
+        /** The future completed with the pixels */
+        private final CompletableFuture<ByteBuffer> result;
+
+        /**
+         * Create a new request
+         *
+         * @param slot
+         *            The pixel buffer the read was made into
+         * @param width
+         *            The width of the area read
+         * @param height
+         *            The height of the area read
+         * @param frame
+         *            The frame the read was made in
+         * @param target
+         *            The buffer the pixels are copied into
+         * @param result
+         *            The future completed with the pixels
+         */
+        Request(Slot slot, int width, int height, long frame, ByteBuffer target, CompletableFuture<ByteBuffer> result) {
+            this.slot = slot;
+            this.width = width;
+            this.height = height;
+            this.frame = frame;
+            this.target = target;
+            this.result = result;
+        }
+    }
+}
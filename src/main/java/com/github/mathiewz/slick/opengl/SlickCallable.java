@@ -3,6 +3,8 @@ package com.github.mathiewz.slick.opengl;
 import org.lwjgl.opengl.GL11;
 
 import com.github.mathiewz.slick.opengl.renderer.Renderer;
+import com.github.mathiewz.slick.opengl.renderer.SGL;
+import com.github.mathiewz.slick.opengl.renderer.StateCachingSGL;
 
 /**
  * A utility to allow performing GL operations without contaminating the
@@ -65,10 +67,22 @@ public abstract class SlickCallable {
         GL11.glMatrixMode(GL11.GL_PROJECTION);
         GL11.glPushMatrix();
         GL11.glMatrixMode(GL11.GL_MODELVIEW);
+        invalidateStateCache();
 
         inSafe = true;
     }
 
+    /**
+     * Make sure a state caching renderer doesn't trust state that may
+     * have been changed behind its back
+     */
+    private static void invalidateStateCache() {
+        SGL gl = Renderer.get();
+        if (gl instanceof StateCachingSGL) {
+            ((StateCachingSGL) gl).invalidate();
+        }
+    }
+
     /**
      * Leave a safe block ensuring that all of Slick's OpenGL state is
      * restored since the last enter.
@@ -84,6 +98,7 @@ public abstract class SlickCallable {
         GL11.glPopMatrix();
         GL11.glPopClientAttrib();
         GL11.glPopAttrib();
+        invalidateStateCache();
 
         if (lastUsed != null) {
             lastUsed.bind();
@@ -65,6 +65,8 @@ public class TextureImpl implements Texture {
     
     /** Data used to reload this texture */
     private ReloadData reloadData;
+    /** True if the texture has been evicted from the card to stay within the texture budget */
+    private boolean evicted;
     
     /**
      * For subclasses to utilise
@@ -149,6 +151,7 @@ public class TextureImpl implements Texture {
     @Override
     public void bind() {
         if (lastBind != this) {
+            InternalTextureLoader.get().bound(this);
             lastBind = this;
             GL.glEnable(GL11.GL_TEXTURE_2D);
             GL.glBindTexture(target, textureID);
@@ -282,6 +285,7 @@ public class TextureImpl implements Texture {
             bindNone();
         }
         
+        InternalTextureLoader.get().untrack(this);
         if (cacheName != null) {
             InternalTextureLoader.get().clear(cacheName);
         } else {
@@ -376,6 +380,36 @@ public class TextureImpl implements Texture {
         }
     }
     
+    /**
+     * Check if this texture has been evicted from the card
+     *
+     * @return True if the texture must be uploaded again before it's used
+     */
+    boolean isEvicted() {
+        return evicted;
+    }
+    
+    /**
+     * Release the texture memory used by this texture, keeping its ID and the
+     * data needed to upload it again
+     */
+    void evict() {
+        if (reloadData == null) {
+            return;
+        }
+        InternalTextureLoader.get().discard(textureID);
+        evicted = true;
+        unbind();
+    }
+    
+    /**
+     * Upload an evicted texture again into its original ID
+     */
+    void restore() {
+        reloadData.upload();
+        evicted = false;
+    }
+    
     /**
      * Reload this texture from it's original source data
      */
@@ -398,5 +432,12 @@ public class TextureImpl implements Texture {
             Log.error("Reloading texture: " + ref);
             return InternalTextureLoader.get().reload(TextureImpl.this, srcPixelFormat, minFilter, magFilter, textureBuffer);
         }
+        
+        /**
+         * Upload this texture again into its current texture ID
+         */
+        public void upload() {
+            InternalTextureLoader.get().upload(TextureImpl.this, textureID, srcPixelFormat, minFilter, magFilter, textureBuffer);
+        }
     }
 }
\ No newline at end of file
@@ -9,12 +9,16 @@ import org.lwjgl.opengl.EXTSecondaryColor;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GLContext;
 
+import com.github.mathiewz.slick.RenderStats;
+
 /**
  * The default OpenGL renderer, uses immediate mode for everything
  *
  * @author kevin
  */
 public class ImmediateModeOGLRenderer implements SGL {
+    /** The statistics the work done is reported into */
+    protected static final RenderStats STATS = RenderStats.get();
     /** The width of the display */
     private int width;
     /** The height of the display */
@@ -23,6 +27,8 @@ public class ImmediateModeOGLRenderer implements SGL {
     private final float[] current = new float[] { 1, 1, 1, 1 };
     /** The global colour scale */
     protected float alphaScale = 1;
+    /** True if a display list is being compiled without being executed */
+    private boolean compiling;
 
     /**
      * @see com.github.mathiewz.slick.opengl.renderer.SGL#initDisplay(int, int)
@@ -68,6 +74,7 @@ public class ImmediateModeOGLRenderer implements SGL {
     @Override
     public void glBegin(int geomType) {
         GL11.glBegin(geomType);
+        STATS.addDrawCall();
     }
 
     /**
@@ -76,6 +83,7 @@ public class ImmediateModeOGLRenderer implements SGL {
     @Override
     public void glBindTexture(int target, int id) {
         GL11.glBindTexture(target, id);
+        STATS.addTextureBind();
     }
 
     /**
@@ -92,6 +100,7 @@ public class ImmediateModeOGLRenderer implements SGL {
     @Override
     public void glCallList(int id) {
         GL11.glCallList(id);
+        STATS.addDrawCall();
     }
 
     /**
@@ -165,6 +174,14 @@ public class ImmediateModeOGLRenderer implements SGL {
         GL11.glDisable(item);
     }
 
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glAlphaFunc(int, float)
+     */
+    @Override
+    public void glAlphaFunc(int func, float ref) {
+        GL11.glAlphaFunc(func, ref);
+    }
+
     /**
      * @see com.github.mathiewz.slick.opengl.renderer.SGL#glEnable(int)
      */
@@ -187,6 +204,10 @@ public class ImmediateModeOGLRenderer implements SGL {
     @Override
     public void glEndList() {
         GL11.glEndList();
+        if (compiling) {
+            compiling = false;
+            STATS.resume();
+        }
     }
 
     /**
@@ -243,6 +264,11 @@ public class ImmediateModeOGLRenderer implements SGL {
     @Override
     public void glNewList(int id, int option) {
         GL11.glNewList(id, option);
+        // geometry compiled into a list isn't drawn until the list is called
+        if (option == GL11.GL_COMPILE) {
+            compiling = true;
+            STATS.suspend();
+        }
     }
 
     /**
@@ -331,6 +357,7 @@ public class ImmediateModeOGLRenderer implements SGL {
     @Override
     public void glVertex2f(float x, float y) {
         GL11.glVertex2f(x, y);
+        STATS.addVertices(1);
     }
 
     /**
@@ -339,6 +366,7 @@ public class ImmediateModeOGLRenderer implements SGL {
     @Override
     public void glVertex3f(float x, float y, float z) {
         GL11.glVertex3f(x, y, z);
+        STATS.addVertices(1);
     }
 
     /**
@@ -0,0 +1,433 @@
+package com.github.mathiewz.slick.opengl.renderer;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import org.lwjgl.opengl.GL11;
+
+/**
+ * A renderer that doesn't touch OpenGL at all. Every operation is discarded apart
+ * from the few queries Slick relies on, which return plausible values - texture and
+ * display list names are handed out in sequence, the maximum texture size is large
+ * and matrices read back as identity. Useful for running rendering code headless.
+ *
+ * Note that many classes take a reference to the renderer when they're loaded, so it
+ * must be installed with {@link Renderer#setRenderer(SGL)} before any other Slick
+ * class is used.
+ *
+ * @author mathiewz
+ */
+public class NullSGL implements SGL {
+    /** The maximum texture size reported */
+    private static final int MAX_TEXTURE_SIZE = 8192;
+
+    /** The current colour */
+    private final float[] current = new float[] { 1, 1, 1, 1 };
+    /** The global colour scale */
+    protected float alphaScale = 1;
+    /** The next texture name to hand out */
+    private int nextTexture = 1;
+    /** The next display list name to hand out */
+    private int nextList = 1;
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#initDisplay(int, int)
+     */
+    @Override
+    public void initDisplay(int width, int height) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#enterOrtho(int, int)
+     */
+    @Override
+    public void enterOrtho(int xsize, int ysize) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glBegin(int)
+     */
+    @Override
+    public void glBegin(int geomType) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glBindTexture(int, int)
+     */
+    @Override
+    public void glBindTexture(int target, int id) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glBlendFunc(int, int)
+     */
+    @Override
+    public void glBlendFunc(int src, int dest) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glCallList(int)
+     */
+    @Override
+    public void glCallList(int id) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glClear(int)
+     */
+    @Override
+    public void glClear(int value) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glClearColor(float, float, float, float)
+     */
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glClipPlane(int, java.nio.DoubleBuffer)
+     */
+    @Override
+    public void glClipPlane(int plane, DoubleBuffer buffer) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glColor4f(float, float, float, float)
+     */
+    @Override
+    public void glColor4f(float r, float g, float b, float a) {
+        a *= alphaScale;
+
+        current[0] = r;
+        current[1] = g;
+        current[2] = b;
+        current[3] = a;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glColorMask(boolean, boolean, boolean, boolean)
+     */
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glCopyTexImage2D(int, int, int, int, int, int, int, int)
+     */
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalFormat, int x, int y, int width, int height, int border) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glDeleteTextures(java.nio.IntBuffer)
+     */
+    @Override
+    public void glDeleteTextures(IntBuffer buffer) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glDisable(int)
+     */
+    @Override
+    public void glDisable(int item) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glAlphaFunc(int, float)
+     */
+    @Override
+    public void glAlphaFunc(int func, float ref) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glEnable(int)
+     */
+    @Override
+    public void glEnable(int item) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glEnd()
+     */
+    @Override
+    public void glEnd() {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glEndList()
+     */
+    @Override
+    public void glEndList() {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGenLists(int)
+     */
+    @Override
+    public int glGenLists(int count) {
+        int id = nextList;
+        nextList += count;
+        return id;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGetFloat(int, java.nio.FloatBuffer)
+     */
+    @Override
+    public void glGetFloat(int id, FloatBuffer ret) {
+        if (id == GL11.GL_MODELVIEW_MATRIX || id == GL11.GL_PROJECTION_MATRIX) {
+            for (int i = 0; i < 16; i++) {
+                ret.put(ret.position() + i, i % 5 == 0 ? 1 : 0);
+            }
+        } else {
+            ret.put(ret.position(), 0);
+        }
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGetInteger(int, java.nio.IntBuffer)
+     */
+    @Override
+    public void glGetInteger(int id, IntBuffer ret) {
+        if (id == GL11.GL_MAX_TEXTURE_SIZE) {
+            ret.put(ret.position(), MAX_TEXTURE_SIZE);
+        } else {
+            ret.put(ret.position(), 0);
+        }
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGetTexImage(int, int, int, int, java.nio.ByteBuffer)
+     */
+    @Override
+    public void glGetTexImage(int target, int level, int format, int type, ByteBuffer pixels) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glLineWidth(float)
+     */
+    @Override
+    public void glLineWidth(float width) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glLoadIdentity()
+     */
+    @Override
+    public void glLoadIdentity() {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glNewList(int, int)
+     */
+    @Override
+    public void glNewList(int id, int option) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glPointSize(float)
+     */
+    @Override
+    public void glPointSize(float size) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glPopMatrix()
+     */
+    @Override
+    public void glPopMatrix() {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glPushMatrix()
+     */
+    @Override
+    public void glPushMatrix() {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glReadPixels(int, int, int, int, int, int, java.nio.ByteBuffer)
+     */
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glRotatef(float, float, float, float)
+     */
+    @Override
+    public void glRotatef(float angle, float x, float y, float z) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glScalef(float, float, float)
+     */
+    @Override
+    public void glScalef(float x, float y, float z) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glScissor(int, int, int, int)
+     */
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTexCoord2f(float, float)
+     */
+    @Override
+    public void glTexCoord2f(float u, float v) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTexEnvi(int, int, int)
+     */
+    @Override
+    public void glTexEnvi(int target, int mode, int value) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTranslatef(float, float, float)
+     */
+    @Override
+    public void glTranslatef(float x, float y, float z) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glVertex2f(float, float)
+     */
+    @Override
+    public void glVertex2f(float x, float y) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glVertex3f(float, float, float)
+     */
+    @Override
+    public void glVertex3f(float x, float y, float z) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#flush()
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTexParameteri(int, int, int)
+     */
+    @Override
+    public void glTexParameteri(int target, int param, int value) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#getCurrentColor()
+     */
+    @Override
+    public float[] getCurrentColor() {
+        return current;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glDeleteLists(int, int)
+     */
+    @Override
+    public void glDeleteLists(int list, int count) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glClearDepth(float)
+     */
+    @Override
+    public void glClearDepth(float value) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glDepthFunc(int)
+     */
+    @Override
+    public void glDepthFunc(int func) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glDepthMask(boolean)
+     */
+    @Override
+    public void glDepthMask(boolean mask) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#setGlobalAlphaScale(float)
+     */
+    @Override
+    public void setGlobalAlphaScale(float alphaScale) {
+        this.alphaScale = alphaScale;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glLoadMatrix(java.nio.FloatBuffer)
+     */
+    @Override
+    public void glLoadMatrix(FloatBuffer buffer) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGenTextures(java.nio.IntBuffer)
+     */
+    @Override
+    public void glGenTextures(IntBuffer ids) {
+        for (int i = ids.position(); i < ids.limit(); i++) {
+            ids.put(i, nextTexture++);
+        }
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGetError()
+     */
+    @Override
+    public void glGetError() {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTexImage2D(int, int, int, int, int, int, int, int, java.nio.ByteBuffer)
+     */
+    @Override
+    public void glTexImage2D(int target, int i, int dstPixelFormat, int width, int height, int j, int srcPixelFormat, int glUnsignedByte, ByteBuffer textureBuffer) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTexSubImage2D(int, int, int, int, int, int, int, int, java.nio.ByteBuffer)
+     */
+    @Override
+    public void glTexSubImage2D(int glTexture2d, int i, int pageX, int pageY, int width, int height, int glBgra, int glUnsignedByte, ByteBuffer scratchByteBuffer) {
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#canTextureMirrorClamp()
+     */
+    @Override
+    public boolean canTextureMirrorClamp() {
+        return false;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#canSecondaryColor()
+     */
+    @Override
+    public boolean canSecondaryColor() {
+        return false;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glSecondaryColor3ubEXT(byte, byte, byte)
+     */
+    @Override
+    public void glSecondaryColor3ubEXT(byte b, byte c, byte d) {
+    }
+}
@@ -0,0 +1,242 @@
+package com.github.mathiewz.slick.opengl.renderer;
+
+import java.nio.FloatBuffer;
+
+/**
+ * A renderer that doesn't touch OpenGL but counts the work that would have been sent
+ * to the card. Install it with {@link Renderer#setRenderer(SGL)} to check how well
+ * rendering code batches without needing a display.
+ *
+ * A draw call is counted for each glBegin()/glEnd() pair and each display list
+ * called. Geometry compiled into a display list is not counted until the list is
+ * called.
+ *
+ * @author mathiewz
+ */
+public class RecordingSGL extends NullSGL {
+    /** The number of draw calls made */
+    private int drawCalls;
+    /** The number of vertices submitted */
+    private int vertices;
+    /** The number of textures bound */
+    private int textureBinds;
+    /** The number of matrix operations */
+    private int matrixOps;
+    /** The number of blend function changes */
+    private int blendChanges;
+    /** The number of times the renderer has been flushed */
+    private int flushes;
+    /** The depth of display lists being compiled */
+    private int listMode;
+
+    /**
+     * Reset all the counters to zero
+     */
+    public void reset() {
+        drawCalls = 0;
+        vertices = 0;
+        textureBinds = 0;
+        matrixOps = 0;
+        blendChanges = 0;
+        flushes = 0;
+    }
+
+    /**
+     * Get the number of draw calls made since the last reset
+     *
+     * @return The number of draw calls made
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Get the number of vertices submitted since the last reset
+     *
+     * @return The number of vertices submitted
+     */
+    public int getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Get the number of textures bound since the last reset
+     *
+     * @return The number of textures bound
+     */
+    public int getTextureBinds() {
+        return textureBinds;
+    }
+
+    /**
+     * Get the number of matrix operations (push, pop, load, translate, rotate and
+     * scale) made since the last reset
+     *
+     * @return The number of matrix operations made
+     */
+    public int getMatrixOps() {
+        return matrixOps;
+    }
+
+    /**
+     * Get the number of blend function changes since the last reset
+     *
+     * @return The number of blend function changes
+     */
+    public int getBlendChanges() {
+        return blendChanges;
+    }
+
+    /**
+     * Get the number of times the renderer has been flushed since the last reset
+     *
+     * @return The number of flushes
+     */
+    public int getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#flush()
+     */
+    @Override
+    public void flush() {
+        flushes++;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glEnd()
+     */
+    @Override
+    public void glEnd() {
+        if (listMode == 0) {
+            drawCalls++;
+        }
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glCallList(int)
+     */
+    @Override
+    public void glCallList(int id) {
+        if (listMode == 0) {
+            drawCalls++;
+        }
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glNewList(int, int)
+     */
+    @Override
+    public void glNewList(int id, int option) {
+        listMode++;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glEndList()
+     */
+    @Override
+    public void glEndList() {
+        listMode--;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glVertex2f(float, float)
+     */
+    @Override
+    public void glVertex2f(float x, float y) {
+        if (listMode == 0) {
+            vertices++;
+        }
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glVertex3f(float, float, float)
+     */
+    @Override
+    public void glVertex3f(float x, float y, float z) {
+        if (listMode == 0) {
+            vertices++;
+        }
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glBindTexture(int, int)
+     */
+    @Override
+    public void glBindTexture(int target, int id) {
+        textureBinds++;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glBlendFunc(int, int)
+     */
+    @Override
+    public void glBlendFunc(int src, int dest) {
+        blendChanges++;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glPushMatrix()
+     */
+    @Override
+    public void glPushMatrix() {
+        matrixOps++;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glPopMatrix()
+     */
+    @Override
+    public void glPopMatrix() {
+        matrixOps++;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glLoadIdentity()
+     */
+    @Override
+    public void glLoadIdentity() {
+        matrixOps++;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glLoadMatrix(java.nio.FloatBuffer)
+     */
+    @Override
+    public void glLoadMatrix(FloatBuffer buffer) {
+        matrixOps++;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glTranslatef(float, float, float)
+     */
+    @Override
+    public void glTranslatef(float x, float y, float z) {
+        matrixOps++;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glRotatef(float, float, float, float)
+     */
+    @Override
+    public void glRotatef(float angle, float x, float y, float z) {
+        matrixOps++;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.NullSGL#glScalef(float, float, float)
+     */
+    @Override
+    public void glScalef(float x, float y, float z) {
+        matrixOps++;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "[RecordingSGL drawCalls=" + drawCalls + " vertices=" + vertices + " textureBinds=" + textureBinds + " matrixOps=" + matrixOps + " blendChanges=" + blendChanges + "]";
+    }
+}
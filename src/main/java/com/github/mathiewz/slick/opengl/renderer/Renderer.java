@@ -18,6 +18,8 @@ public class Renderer {
     public static final int DEFAULT_LINE_STRIP_RENDERER = 3;
     /** The indicator for consistant quad based lines */
     public static final int QUAD_BASED_LINE_STRIP_RENDERER = 4;
+    /** The indicator for buffer object based rendering */
+    public static final int VBO_RENDERER = 5;
     
     /** The renderer in use */
     private static SGL renderer = new ImmediateModeOGLRenderer();
@@ -38,6 +40,9 @@ public class Renderer {
             case VERTEX_ARRAY_RENDERER:
                 setRenderer(new VAOGLRenderer());
                 return;
+            case VBO_RENDERER:
+                setRenderer(new VBOGLRenderer());
+                return;
         }
         
         throw new SlickException("Unknown renderer type: " + type);
@@ -75,7 +80,9 @@ public class Renderer {
     }
     
     /**
-     * Set the renderer to be used
+     * Set the renderer to be used. Many classes take a reference to the renderer when
+     * they're loaded so this should be called before any other Slick class is used,
+     * for instance to install a {@link NullSGL} or {@link RecordingSGL} for headless runs.
      *
      * @param r
      *            The renderer to be used
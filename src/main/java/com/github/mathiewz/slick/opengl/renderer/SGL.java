@@ -125,6 +125,14 @@ public interface SGL {
      */
     public void glDisable(int item);
 
+    /**
+     * OpenGL Method - @url http://www.opengl.org/documentation/
+     *
+     * @param func
+     * @param ref
+     */
+    public void glAlphaFunc(int func, float ref);
+
     /**
      * OpenGL Method - @url http://www.opengl.org/documentation/
      *
@@ -0,0 +1,605 @@
+package com.github.mathiewz.slick.opengl.renderer;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * A renderer that wraps another and drops state changes that wouldn't change anything.
+ * The bound texture, blend function, current colour, enabled capabilities and line width
+ * are tracked and a call setting any of them to the value it already has never reaches
+ * the wrapped renderer. The number of calls dropped is available through
+ * {@link #getSuppressedCount()}.
+ *
+ * Nothing is cached while a display list is being compiled and the cache is forgotten
+ * after a list is called, since we can't tell what state it changed. Code changing GL
+ * state without going through this renderer should call {@link #invalidate()}.
+ *
+ * @author mathiewz
+ */
+public class StateCachingSGL implements SGL {
+    /** Indicates a value that isn't known */
+    private static final int UNKNOWN = -1;
+    /** The capabilities we'll track, others are always passed on */
+    private static final int MAX_CAPABILITY = 0x10000;
+    /** The state of a capability that hasn't been set through this renderer */
+    private static final byte UNSET = 0;
+    /** The state of an enabled capability */
+    private static final byte ENABLED = 1;
+    /** The state of a disabled capability */
+    private static final byte DISABLED = 2;
+
+    /** The renderer being wrapped */
+    private final SGL delegate;
+
+    /** The target of the texture bound */
+    private int boundTarget = UNKNOWN;
+    /** The texture bound */
+    private int boundTexture = UNKNOWN;
+    /** The source factor of the blend function */
+    private int blendSrc = UNKNOWN;
+    /** The destination factor of the blend function */
+    private int blendDest = UNKNOWN;
+    /** The last colour set */
+    private final float[] color = new float[4];
+    /** True if the last colour set is known */
+    private boolean colorValid;
+    /** The line width set */
+    private float lineWidth = UNKNOWN;
+    /** The state of each capability, indexed by the GL enum */
+    private final byte[] capabilities = new byte[MAX_CAPABILITY];
+    /** The depth of display lists being compiled */
+    private int listMode;
+    /** The number of calls dropped */
+    private long suppressed;
+
+    /**
+     * Create a new state caching renderer
+     *
+     * @param delegate
+     *            The renderer to pass the calls that change state on to
+     */
+    public StateCachingSGL(SGL delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Get the renderer being wrapped
+     *
+     * @return The renderer being wrapped
+     */
+    public SGL getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Forget all the state that has been cached. The next call setting any
+     * state will be passed on.
+     */
+    public void invalidate() {
+        boundTarget = UNKNOWN;
+        boundTexture = UNKNOWN;
+        blendSrc = UNKNOWN;
+        blendDest = UNKNOWN;
+        colorValid = false;
+        lineWidth = UNKNOWN;
+        Arrays.fill(capabilities, UNSET);
+    }
+
+    /**
+     * Get the number of calls that have been dropped because they wouldn't
+     * have changed any state
+     *
+     * @return The number of calls dropped
+     */
+    public long getSuppressedCount() {
+        return suppressed;
+    }
+
+    /**
+     * Reset the count of calls dropped
+     */
+    public void resetSuppressedCount() {
+        suppressed = 0;
+    }
+
+    /**
+     * Record the new state of a capability
+     *
+     * @param item
+     *            The capability being changed
+     * @param state
+     *            The new state of the capability
+     * @return True if the call should be passed on
+     */
+    private boolean setCapability(int item, byte state) {
+        if (listMode > 0 || item < 0 || item >= MAX_CAPABILITY) {
+            return true;
+        }
+        if (capabilities[item] == state) {
+            suppressed++;
+            return false;
+        }
+        capabilities[item] = state;
+        return true;
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#initDisplay(int, int)
+     */
+    @Override
+    public void initDisplay(int width, int height) {
+        invalidate();
+        delegate.initDisplay(width, height);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#enterOrtho(int, int)
+     */
+    @Override
+    public void enterOrtho(int xsize, int ysize) {
+        delegate.enterOrtho(xsize, ysize);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glBegin(int)
+     */
+    @Override
+    public void glBegin(int geomType) {
+        delegate.glBegin(geomType);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glBindTexture(int, int)
+     */
+    @Override
+    public void glBindTexture(int target, int id) {
+        if (listMode == 0) {
+            if (target == boundTarget && id == boundTexture) {
+                suppressed++;
+                return;
+            }
+            boundTarget = target;
+            boundTexture = id;
+        }
+        delegate.glBindTexture(target, id);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glBlendFunc(int, int)
+     */
+    @Override
+    public void glBlendFunc(int src, int dest) {
+        if (listMode == 0) {
+            if (src == blendSrc && dest == blendDest) {
+                suppressed++;
+                return;
+            }
+            blendSrc = src;
+            blendDest = dest;
+        }
+        delegate.glBlendFunc(src, dest);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glCallList(int)
+     */
+    @Override
+    public void glCallList(int id) {
+        delegate.glCallList(id);
+        // we can't tell what state the list changed
+        invalidate();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glClear(int)
+     */
+    @Override
+    public void glClear(int value) {
+        delegate.glClear(value);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glClearColor(float, float, float, float)
+     */
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        delegate.glClearColor(red, green, blue, alpha);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glClipPlane(int, java.nio.DoubleBuffer)
+     */
+    @Override
+    public void glClipPlane(int plane, DoubleBuffer buffer) {
+        delegate.glClipPlane(plane, buffer);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glColor4f(float, float, float, float)
+     */
+    @Override
+    public void glColor4f(float r, float g, float b, float a) {
+        if (listMode == 0) {
+            if (colorValid && r == color[0] && g == color[1] && b == color[2] && a == color[3]) {
+                suppressed++;
+                return;
+            }
+            colorValid = true;
+            color[0] = r;
+            color[1] = g;
+            color[2] = b;
+            color[3] = a;
+        }
+        delegate.glColor4f(r, g, b, a);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glColorMask(boolean, boolean, boolean, boolean)
+     */
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        delegate.glColorMask(red, green, blue, alpha);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glCopyTexImage2D(int, int, int, int, int, int, int, int)
+     */
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalFormat, int x, int y, int width, int height, int border) {
+        delegate.glCopyTexImage2D(target, level, internalFormat, x, y, width, height, border);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glDeleteTextures(java.nio.IntBuffer)
+     */
+    @Override
+    public void glDeleteTextures(IntBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) == boundTexture) {
+                boundTarget = UNKNOWN;
+                boundTexture = UNKNOWN;
+            }
+        }
+        delegate.glDeleteTextures(buffer);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glDisable(int)
+     */
+    @Override
+    public void glDisable(int item) {
+        if (setCapability(item, DISABLED)) {
+            delegate.glDisable(item);
+        }
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glAlphaFunc(int, float)
+     */
+    @Override
+    public void glAlphaFunc(int func, float ref) {
+        delegate.glAlphaFunc(func, ref);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glEnable(int)
+     */
+    @Override
+    public void glEnable(int item) {
+        if (setCapability(item, ENABLED)) {
+            delegate.glEnable(item);
+        }
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glEnd()
+     */
+    @Override
+    public void glEnd() {
+        delegate.glEnd();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glEndList()
+     */
+    @Override
+    public void glEndList() {
+        delegate.glEndList();
+        listMode--;
+        // lists compiled and executed will have changed the state
+        invalidate();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGenLists(int)
+     */
+    @Override
+    public int glGenLists(int count) {
+        return delegate.glGenLists(count);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGetFloat(int, java.nio.FloatBuffer)
+     */
+    @Override
+    public void glGetFloat(int id, FloatBuffer ret) {
+        delegate.glGetFloat(id, ret);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGetInteger(int, java.nio.IntBuffer)
+     */
+    @Override
+    public void glGetInteger(int id, IntBuffer ret) {
+        delegate.glGetInteger(id, ret);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGetTexImage(int, int, int, int, java.nio.ByteBuffer)
+     */
+    @Override
+    public void glGetTexImage(int target, int level, int format, int type, ByteBuffer pixels) {
+        delegate.glGetTexImage(target, level, format, type, pixels);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glLineWidth(float)
+     */
+    @Override
+    public void glLineWidth(float width) {
+        if (listMode == 0) {
+            if (width == lineWidth) {
+                suppressed++;
+                return;
+            }
+            lineWidth = width;
+        }
+        delegate.glLineWidth(width);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glLoadIdentity()
+     */
+    @Override
+    public void glLoadIdentity() {
+        delegate.glLoadIdentity();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glNewList(int, int)
+     */
+    @Override
+    public void glNewList(int id, int option) {
+        listMode++;
+        delegate.glNewList(id, option);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glPointSize(float)
+     */
+    @Override
+    public void glPointSize(float size) {
+        delegate.glPointSize(size);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glPopMatrix()
+     */
+    @Override
+    public void glPopMatrix() {
+        delegate.glPopMatrix();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glPushMatrix()
+     */
+    @Override
+    public void glPushMatrix() {
+        delegate.glPushMatrix();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glReadPixels(int, int, int, int, int, int, java.nio.ByteBuffer)
+     */
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        delegate.glReadPixels(x, y, width, height, format, type, pixels);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glRotatef(float, float, float, float)
+     */
+    @Override
+    public void glRotatef(float angle, float x, float y, float z) {
+        delegate.glRotatef(angle, x, y, z);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glScalef(float, float, float)
+     */
+    @Override
+    public void glScalef(float x, float y, float z) {
+        delegate.glScalef(x, y, z);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glScissor(int, int, int, int)
+     */
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        delegate.glScissor(x, y, width, height);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTexCoord2f(float, float)
+     */
+    @Override
+    public void glTexCoord2f(float u, float v) {
+        delegate.glTexCoord2f(u, v);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTexEnvi(int, int, int)
+     */
+    @Override
+    public void glTexEnvi(int target, int mode, int value) {
+        delegate.glTexEnvi(target, mode, value);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTranslatef(float, float, float)
+     */
+    @Override
+    public void glTranslatef(float x, float y, float z) {
+        delegate.glTranslatef(x, y, z);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glVertex2f(float, float)
+     */
+    @Override
+    public void glVertex2f(float x, float y) {
+        delegate.glVertex2f(x, y);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glVertex3f(float, float, float)
+     */
+    @Override
+    public void glVertex3f(float x, float y, float z) {
+        delegate.glVertex3f(x, y, z);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#flush()
+     */
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTexParameteri(int, int, int)
+     */
+    @Override
+    public void glTexParameteri(int target, int param, int value) {
+        delegate.glTexParameteri(target, param, value);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#getCurrentColor()
+     */
+    @Override
+    public float[] getCurrentColor() {
+        return delegate.getCurrentColor();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glDeleteLists(int, int)
+     */
+    @Override
+    public void glDeleteLists(int list, int count) {
+        delegate.glDeleteLists(list, count);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glClearDepth(float)
+     */
+    @Override
+    public void glClearDepth(float value) {
+        delegate.glClearDepth(value);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glDepthFunc(int)
+     */
+    @Override
+    public void glDepthFunc(int func) {
+        delegate.glDepthFunc(func);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glDepthMask(boolean)
+     */
+    @Override
+    public void glDepthMask(boolean mask) {
+        delegate.glDepthMask(mask);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#setGlobalAlphaScale(float)
+     */
+    @Override
+    public void setGlobalAlphaScale(float alphaScale) {
+        // the colour sent depends on the scale so it can't be trusted any more
+        colorValid = false;
+        delegate.setGlobalAlphaScale(alphaScale);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glLoadMatrix(java.nio.FloatBuffer)
+     */
+    @Override
+    public void glLoadMatrix(FloatBuffer buffer) {
+        delegate.glLoadMatrix(buffer);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGenTextures(java.nio.IntBuffer)
+     */
+    @Override
+    public void glGenTextures(IntBuffer ids) {
+        delegate.glGenTextures(ids);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glGetError()
+     */
+    @Override
+    public void glGetError() {
+        delegate.glGetError();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTexImage2D(int, int, int, int, int, int, int, int, java.nio.ByteBuffer)
+     */
+    @Override
+    public void glTexImage2D(int target, int i, int dstPixelFormat, int width, int height, int j, int srcPixelFormat, int glUnsignedByte, ByteBuffer textureBuffer) {
+        delegate.glTexImage2D(target, i, dstPixelFormat, width, height, j, srcPixelFormat, glUnsignedByte, textureBuffer);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glTexSubImage2D(int, int, int, int, int, int, int, int, java.nio.ByteBuffer)
+     */
+    @Override
+    public void glTexSubImage2D(int glTexture2d, int i, int pageX, int pageY, int width, int height, int glBgra, int glUnsignedByte, ByteBuffer scratchByteBuffer) {
+        delegate.glTexSubImage2D(glTexture2d, i, pageX, pageY, width, height, glBgra, glUnsignedByte, scratchByteBuffer);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#canTextureMirrorClamp()
+     */
+    @Override
+    public boolean canTextureMirrorClamp() {
+        return delegate.canTextureMirrorClamp();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#canSecondaryColor()
+     */
+    @Override
+    public boolean canSecondaryColor() {
+        return delegate.canSecondaryColor();
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.SGL#glSecondaryColor3ubEXT(byte, byte, byte)
+     */
+    @Override
+    public void glSecondaryColor3ubEXT(byte b, byte c, byte d) {
+        delegate.glSecondaryColor3ubEXT(b, c, d);
+    }
+}
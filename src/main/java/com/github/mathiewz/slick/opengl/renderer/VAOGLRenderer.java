@@ -8,17 +8,32 @@ import org.lwjgl.opengl.GL11;
 
 /**
  * A renderer that caches all operations into an array, creates an opengl vertex array when
- * required and spits the data down to the card in batch mode
+ * required and spits the data down to the card in batch mode.
+ *
+ * Vertices are written straight into a single interleaved direct buffer (position, colour,
+ * texture coordinate) which is handed to GL as is. The size of a batch can be changed at
+ * runtime with {@link #setMaxVertices(int)}.
  *
  * @author kevin
  */
 public class VAOGLRenderer extends ImmediateModeOGLRenderer {
-    /** The tolerance to rendering immediate */
-    private static final int TOLERANCE = 20;
     /** Indicates there is no current geometry buffer */
     public static final int NONE = -1;
-    /** The maximum number of vertices draw in one batch */
+    /** The default maximum number of vertices draw in one batch */
     public static final int MAX_VERTS = 5000;
+    /** The smallest batch size that can be configured */
+    private static final int MIN_VERTS = 100;
+    /** The headroom left at the end of a batch to find a point where the geometry can be split */
+    private static final int SPLIT_MARGIN = 50;
+
+    /** The number of floats in one interleaved vertex - position, colour and texture coordinate */
+    protected static final int VERTEX_SIZE = 3 + 4 + 2;
+    /** The number of bytes in one interleaved vertex */
+    protected static final int STRIDE = VERTEX_SIZE * 4;
+    /** The offset in floats of the colour within a vertex */
+    protected static final int COLOR_OFFSET = 3;
+    /** The offset in floats of the texture coordinate within a vertex */
+    protected static final int TEXTURE_OFFSET = 3 + 4;
 
     /** The type of the geometry array currently being built - i.e. GL_QUADS */
     private int currentType = NONE;
@@ -28,24 +43,64 @@ public class VAOGLRenderer extends ImmediateModeOGLRenderer {
     private final float[] tex = new float[] { 0f, 0f };
     /** The index of the next vertex to be created */
     private int vertIndex;
+    /** The maximum number of vertices in one batch */
+    private int maxVerts;
 
-    /** The vertex data cached */
-    private final float[] verts = new float[MAX_VERTS * 3];
-    /** The vertex colour data cached */
-    private final float[] cols = new float[MAX_VERTS * 4];
-    /** The vertex texture coordiante data cached */
-    private final float[] texs = new float[MAX_VERTS * 3];
-
-    /** The buffer used to pass the vertex data to the card */
-    private final FloatBuffer vertices = BufferUtils.createFloatBuffer(MAX_VERTS * 3);
-    /** The buffer used to pass the vertex color data to the card */
-    private final FloatBuffer colors = BufferUtils.createFloatBuffer(MAX_VERTS * 4);
-    /** The buffer used to pass the vertex texture coordinate data to the card */
-    private final FloatBuffer textures = BufferUtils.createFloatBuffer(MAX_VERTS * 2);
+    /** The interleaved vertex data passed to the card */
+    private FloatBuffer vertices;
+    /** True if the array pointers need to be pointed at the vertex data again */
+    private boolean pointersDirty = true;
 
     /** The stack for entering list creation mode - when we're creating a list we can't use our VAs */
     private int listMode = 0;
 
+    /**
+     * Create a new renderer using the default batch size
+     */
+    public VAOGLRenderer() {
+        this(MAX_VERTS);
+    }
+
+    /**
+     * Create a new renderer
+     *
+     * @param maxVerts
+     *            The maximum number of vertices drawn in one batch
+     */
+    public VAOGLRenderer(int maxVerts) {
+        setMaxVertices(maxVerts);
+    }
+
+    /**
+     * Set the maximum number of vertices drawn in one batch. Any geometry
+     * already cached is flushed first.
+     *
+     * @param maxVerts
+     *            The maximum number of vertices drawn in one batch
+     */
+    public void setMaxVertices(int maxVerts) {
+        if (maxVerts < MIN_VERTS) {
+            throw new IllegalArgumentException("A batch must hold at least " + MIN_VERTS + " vertices");
+        }
+        if (vertices != null && vertIndex != 0 && listMode == 0) {
+            flushBuffer();
+            startBuffer();
+        }
+
+        this.maxVerts = maxVerts;
+        vertices = BufferUtils.createFloatBuffer(maxVerts * VERTEX_SIZE);
+        pointersDirty = true;
+    }
+
+    /**
+     * Get the maximum number of vertices drawn in one batch
+     *
+     * @return The maximum number of vertices drawn in one batch
+     */
+    public int getMaxVertices() {
+        return maxVerts;
+    }
+
     /**
      * @see com.github.mathiewz.slick.opengl.renderer.ImmediateModeOGLRenderer#initDisplay(int, int)
      */
@@ -54,6 +109,7 @@ public class VAOGLRenderer extends ImmediateModeOGLRenderer {
         super.initDisplay(width, height);
 
         startBuffer();
+        pointersDirty = true;
         GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
         GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
         GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
@@ -64,6 +120,7 @@ public class VAOGLRenderer extends ImmediateModeOGLRenderer {
      */
     private void startBuffer() {
         vertIndex = 0;
+        vertices.clear();
     }
 
     /**
@@ -77,35 +134,49 @@ public class VAOGLRenderer extends ImmediateModeOGLRenderer {
             return;
         }
 
-        if (vertIndex < TOLERANCE) {
-            GL11.glBegin(currentType);
-            for (int i = 0; i < vertIndex; i++) {
-                GL11.glColor4f(cols[i * 4 + 0], cols[i * 4 + 1], cols[i * 4 + 2], cols[i * 4 + 3]);
-                GL11.glTexCoord2f(texs[i * 2 + 0], texs[i * 2 + 1]);
-                GL11.glVertex3f(verts[i * 3 + 0], verts[i * 3 + 1], verts[i * 3 + 2]);
-            }
-            GL11.glEnd();
-            currentType = NONE;
-            return;
-        }
-        vertices.clear();
-        colors.clear();
-        textures.clear();
-
-        vertices.put(verts, 0, vertIndex * 3);
-        colors.put(cols, 0, vertIndex * 4);
-        textures.put(texs, 0, vertIndex * 2);
-
         vertices.flip();
-        colors.flip();
-        textures.flip();
+        drawArrays(currentType, vertIndex, vertices);
+        STATS.addFlush();
+        STATS.addDrawCall();
+        STATS.addVertices(vertIndex);
+        currentType = NONE;
+    }
+
+    /**
+     * Send a batch of cached vertices to the card
+     *
+     * @param type
+     *            The type of geometry being drawn - i.e. GL_QUADS
+     * @param count
+     *            The number of vertices to draw
+     * @param data
+     *            The interleaved vertex data, VERTEX_SIZE floats per vertex
+     */
+    protected void drawArrays(int type, int count, FloatBuffer data) {
+        if (pointersDirty) {
+            pointersDirty = false;
+            GL11.glVertexPointer(3, STRIDE, view(data, 0));
+            GL11.glColorPointer(4, STRIDE, view(data, COLOR_OFFSET));
+            GL11.glTexCoordPointer(2, STRIDE, view(data, TEXTURE_OFFSET));
+        }
 
-        GL11.glVertexPointer(3, 0, vertices);
-        GL11.glColorPointer(4, 0, colors);
-        GL11.glTexCoordPointer(2, 0, textures);
+        GL11.glDrawArrays(type, 0, count);
+    }
 
-        GL11.glDrawArrays(currentType, 0, vertIndex);
-        currentType = NONE;
+    /**
+     * Get a view of the vertex data starting at a given offset
+     *
+     * @param data
+     *            The vertex data
+     * @param offset
+     *            The offset in floats the view should start at
+     * @return A buffer sharing the vertex data starting at the given offset
+     */
+    private static FloatBuffer view(FloatBuffer data, int offset) {
+        FloatBuffer view = data.duplicate();
+        view.clear();
+        view.position(offset);
+        return view.slice();
     }
 
     /**
@@ -216,18 +287,12 @@ public class VAOGLRenderer extends ImmediateModeOGLRenderer {
             return;
         }
 
-        verts[vertIndex * 3 + 0] = x;
-        verts[vertIndex * 3 + 1] = y;
-        verts[vertIndex * 3 + 2] = z;
-        cols[vertIndex * 4 + 0] = color[0];
-        cols[vertIndex * 4 + 1] = color[1];
-        cols[vertIndex * 4 + 2] = color[2];
-        cols[vertIndex * 4 + 3] = color[3];
-        texs[vertIndex * 2 + 0] = tex[0];
-        texs[vertIndex * 2 + 1] = tex[1];
+        vertices.put(x).put(y).put(z);
+        vertices.put(color);
+        vertices.put(tex);
         vertIndex++;
 
-        if (vertIndex > MAX_VERTS - 50) {
+        if (vertIndex > maxVerts - SPLIT_MARGIN) {
             if (isSplittable(vertIndex, currentType)) {
                 int type = currentType;
                 applyBuffer();
@@ -330,6 +395,15 @@ public class VAOGLRenderer extends ImmediateModeOGLRenderer {
         super.glEnable(item);
     }
 
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.ImmediateModeOGLRenderer#glAlphaFunc(int, float)
+     */
+    @Override
+    public void glAlphaFunc(int func, float ref) {
+        applyBuffer();
+        super.glAlphaFunc(func, ref);
+    }
+
     /**
      * @see com.github.mathiewz.slick.opengl.renderer.ImmediateModeOGLRenderer#glLineWidth(float)
      */
@@ -442,7 +516,7 @@ public class VAOGLRenderer extends ImmediateModeOGLRenderer {
      */
     @Override
     public void glLoadMatrix(FloatBuffer buffer) {
-        flushBuffer();
+        applyBuffer();
         super.glLoadMatrix(buffer);
     }
 }
@@ -0,0 +1,84 @@
+package com.github.mathiewz.slick.opengl.renderer;
+
+import java.nio.FloatBuffer;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GLContext;
+
+import com.github.mathiewz.slick.util.Log;
+
+/**
+ * A renderer that batches geometry in the same way as the vertex array renderer
+ * but streams it to the card through a buffer object. The interleaved vertex data
+ * is uploaded as is and the buffer object is orphaned before each upload so the
+ * driver never has to wait on a batch still being drawn.
+ *
+ * If buffer objects aren't supported by the current context the renderer
+ * falls back to client side vertex arrays.
+ *
+ * @author mathiewz
+ */
+public class VBOGLRenderer extends VAOGLRenderer {
+    /** The buffer object the vertex data is streamed into */
+    private int bufferID;
+    /** True if buffer objects are available on this context */
+    private boolean supported;
+
+    /**
+     * Create a new renderer using the default batch size
+     */
+    public VBOGLRenderer() {
+        super();
+    }
+
+    /**
+     * Create a new renderer
+     *
+     * @param maxVerts
+     *            The maximum number of vertices drawn in one batch
+     */
+    public VBOGLRenderer(int maxVerts) {
+        super(maxVerts);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.VAOGLRenderer#initDisplay(int, int)
+     */
+    @Override
+    public void initDisplay(int width, int height) {
+        super.initDisplay(width, height);
+
+        supported = GLContext.getCapabilities().OpenGL15;
+        if (!supported) {
+            Log.warn("Buffer objects are not supported, falling back to vertex arrays");
+            return;
+        }
+
+        if (bufferID == 0) {
+            bufferID = GL15.glGenBuffers();
+        }
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, bufferID);
+        GL11.glVertexPointer(3, GL11.GL_FLOAT, STRIDE, 0);
+        GL11.glColorPointer(4, GL11.GL_FLOAT, STRIDE, COLOR_OFFSET * 4);
+        GL11.glTexCoordPointer(2, GL11.GL_FLOAT, STRIDE, TEXTURE_OFFSET * 4);
+    }
+
+    /**
+     * @see com.github.mathiewz.slick.opengl.renderer.VAOGLRenderer#drawArrays(int, int, java.nio.FloatBuffer)
+     */
+    @Override
+    protected void drawArrays(int type, int count, FloatBuffer data) {
+        if (!supported) {
+            super.drawArrays(type, count, data);
+            return;
+        }
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, bufferID);
+        // orphan the previous contents so we don't stall on a draw still in flight
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, data.capacity() * 4L, GL15.GL_STREAM_DRAW);
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, data);
+
+        GL11.glDrawArrays(type, 0, count);
+    }
+}
@@ -155,7 +155,7 @@ public class Particle {
      * Render this particle
      */
     public void render() {
-        if (engine.usePoints() && usePoints == INHERIT_POINTS || usePoints == USE_POINTS) {
+        if (isPoint()) {
             TextureImpl.bindNone();
             GL.glEnable(GL11.GL_POINT_SMOOTH);
             GL.glPointSize(size / 2);
@@ -184,6 +184,138 @@ public class Particle {
         }
     }
     
+    /**
+     * Check if this particle is rendered as a point rather than a textured quad
+     *
+     * @return True if this particle is rendered as a point
+     */
+    boolean isPoint() {
+        return engine.usePoints() && usePoints == INHERIT_POINTS || usePoints == USE_POINTS;
+    }
+    
+    /**
+     * Write the quad this particle is rendered as into a buffer. The corners are
+     * produced in the same order and at the same positions as render() would
+     * draw them, but any orientation and scaling is applied here rather than
+     * through the GL transform. Per-corner image colours aren't applied.
+     *
+     * @param vertices
+     *            The buffer to write the corners to, 4 floats per corner holding
+     *            the position and texture coordinates
+     * @param colors
+     *            The buffer to write the colour of the quad to, 4 floats
+     * @param index
+     *            The index of the quad in the buffers
+     */
+    void bufferQuad(float[] vertices, float[] colors, int index) {
+        float u = image.getTextureOffsetX();
+        float v = image.getTextureOffsetY();
+        float u2 = u + image.getTextureWidth();
+        float v2 = v + image.getTextureHeight();
+        float alpha = color.a;
+        int offset = index * 16;
+        
+        if (oriented || scaleY != 1.0f) {
+            float left = (int) -(size / 2);
+            float top = (int) -(size / 2);
+            float s = (int) size;
+            
+            float angle = oriented ? (float) Math.atan2(y, x) : 0;
+            float cos = (float) Math.cos(angle);
+            float sin = (float) Math.sin(angle);
+            float imageAngle = (float) Math.toRadians(image.getRotation());
+            
+            bufferCorner(vertices, offset, 0, 0, u, v, left, top, cos, sin, imageAngle);
+            bufferCorner(vertices, offset + 4, 0, s, u, v2, left, top, cos, sin, imageAngle);
+            bufferCorner(vertices, offset + 8, s, s, u2, v2, left, top, cos, sin, imageAngle);
+            bufferCorner(vertices, offset + 12, s, 0, u2, v, left, top, cos, sin, imageAngle);
+            // image.draw() applies the alpha of the image over the particle colour
+            alpha *= image.getAlpha();
+        } else {
+            float left = (int) (x - size / 2);
+            float top = (int) (y - size / 2);
+            float right = left + (int) size;
+            float bottom = top + (int) size;
+            
+            putCorner(vertices, offset, left, top, u, v);
+            putCorner(vertices, offset + 4, left, bottom, u, v2);
+            putCorner(vertices, offset + 8, right, bottom, u2, v2);
+            putCorner(vertices, offset + 12, right, top, u2, v);
+        }
+        
+        int colOffset = index * 4;
+        colors[colOffset] = color.r;
+        colors[colOffset + 1] = color.g;
+        colors[colOffset + 2] = color.b;
+        colors[colOffset + 3] = alpha;
+    }
+    
+    /**
+     * Transform a corner of the particle's image into place and write it to a buffer
+     *
+     * @param vertices
+     *            The buffer to write the corner to
+     * @param offset
+     *            The offset into the buffer to write at
+     * @param cx
+     *            The x coordinate of the corner within the image
+     * @param cy
+     *            The y coordinate of the corner within the image
+     * @param u
+     *            The u texture coordinate of the corner
+     * @param v
+     *            The v texture coordinate of the corner
+     * @param left
+     *            The x offset of the image from the particle's position
+     * @param top
+     *            The y offset of the image from the particle's position
+     * @param cos
+     *            The cosine of the particle's orientation
+     * @param sin
+     *            The sine of the particle's orientation
+     * @param imageAngle
+     *            The rotation of the image itself in radians
+     */
+    private void bufferCorner(float[] vertices, int offset, float cx, float cy, float u, float v, float left, float top, float cos, float sin, float imageAngle) {
+        if (imageAngle != 0) {
+            float centerX = image.getCenterOfRotationX();
+            float centerY = image.getCenterOfRotationY();
+            float icos = (float) Math.cos(imageAngle);
+            float isin = (float) Math.sin(imageAngle);
+            float dx = cx - centerX;
+            float dy = cy - centerY;
+            cx = centerX + dx * icos - dy * isin;
+            cy = centerY + dx * isin + dy * icos;
+        }
+        
+        float px = left + cx;
+        float py = (top + cy) * scaleY;
+        putCorner(vertices, offset, x + px * cos - py * sin, y + px * sin + py * cos, u, v);
+    }
+    
+    /**
+     * Write a corner to a buffer
+     *
+     * @param vertices
+     *            The buffer to write the corner to
+     * @param offset
+     *            The offset into the buffer to write at
+     * @param px
+     *            The x coordinate of the corner
+     * @param py
+     *            The y coordinate of the corner
+     * @param u
+     *            The u texture coordinate of the corner
+     * @param v
+     *            The v texture coordinate of the corner
+     */
+    private static void putCorner(float[] vertices, int offset, float px, float py, float u, float v) {
+        vertices[offset] = px;
+        vertices[offset + 1] = py;
+        vertices[offset + 2] = u;
+        vertices[offset + 3] = v;
+    }
+    
     /**
      * Update the state of this particle
      *
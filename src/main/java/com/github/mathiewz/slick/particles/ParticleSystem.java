@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 
@@ -132,6 +133,12 @@ public class ParticleSystem {
     private String defaultImageName;
     /** The mask used to make the particle image background transparent if any */
     private Color mask;
+    /** True if each emitter's particles should be buffered and drawn together */
+    private boolean bufferedRendering;
+    /** The corners of the quads buffered for an emitter, position and texture coordinates */
+    private float[] quadVertices = new float[0];
+    /** The colour of each quad buffered for an emitter */
+    private float[] quadColors = new float[0];
     
     /**
      * Create a new particle system
@@ -219,6 +226,33 @@ public class ParticleSystem {
         return usePoints;
     }
     
+    /**
+     * Indicate if the particles of each emitter should be buffered and drawn
+     * together. When buffered, every live particle of an emitter is written into
+     * a single vertex and colour buffer, with orientation and scaling applied on
+     * the CPU, and the emitter is submitted as one run of geometry instead of
+     * a colour change, and possibly a matrix push and pop, per particle.
+     *
+     * Particles rendered as points are still drawn individually. Buffered
+     * particles don't go through Particle.render(), so particle subclasses that
+     * override it should leave this disabled.
+     *
+     * @param buffered
+     *            True if the particles of each emitter should be drawn together
+     */
+    public void setBufferedRendering(boolean buffered) {
+        bufferedRendering = buffered;
+    }
+    
+    /**
+     * Check if the particles of each emitter are buffered and drawn together
+     *
+     * @return True if the particles of each emitter are drawn together
+     */
+    public boolean isBufferedRendering() {
+        return bufferedRendering;
+    }
+    
     /**
      * Create a new particle system
      *
@@ -449,18 +483,22 @@ public class ParticleSystem {
                 image = sprite;
             }
             
-            if (!emitter.isOriented() && !emitter.usePoints(this)) {
-                image.startUse();
-            }
-            
-            for (Particle particle : pool.particles) {
-                if (particle.inUse()) {
-                    particle.render();
+            if (bufferedRendering) {
+                renderBuffered(pool, image);
+            } else {
+                if (!emitter.isOriented() && !emitter.usePoints(this)) {
+                    image.startUse();
+                }
+                
+                for (Particle particle : pool.particles) {
+                    if (particle.inUse()) {
+                        particle.render();
+                    }
+                }
+                
+                if (!emitter.isOriented() && !emitter.usePoints(this)) {
+                    image.endUse();
                 }
-            }
-            
-            if (!emitter.isOriented() && !emitter.usePoints(this)) {
-                image.endUse();
             }
             
             // reset additive blend mode
@@ -480,6 +518,53 @@ public class ParticleSystem {
         GL.glTranslatef(-x, -y, 0);
     }
     
+    /**
+     * Render the particles of an emitter by writing them into a single buffer
+     * and submitting it as one run of quads
+     *
+     * @param pool
+     *            The pool holding the emitter's particles
+     * @param image
+     *            The image the emitter's particles are drawn with
+     */
+    private void renderBuffered(ParticlePool pool, Image image) {
+        int count = 0;
+        for (Particle particle : pool.particles) {
+            if (!particle.inUse()) {
+                continue;
+            }
+            if (particle.isPoint()) {
+                particle.render();
+                continue;
+            }
+            
+            if (count * 4 == quadColors.length) {
+                int size = Math.max(64, count * 2);
+                quadVertices = Arrays.copyOf(quadVertices, size * 16);
+                quadColors = Arrays.copyOf(quadColors, size * 4);
+            }
+            particle.bufferQuad(quadVertices, quadColors, count);
+            count++;
+        }
+        
+        if (count == 0) {
+            return;
+        }
+        
+        image.startUse();
+        for (int i = 0; i < count; i++) {
+            int colOffset = i * 4;
+            GL.glColor4f(quadColors[colOffset], quadColors[colOffset + 1], quadColors[colOffset + 2], quadColors[colOffset + 3]);
+            int offset = i * 16;
+            for (int c = 0; c < 4; c++) {
+                GL.glTexCoord2f(quadVertices[offset + 2], quadVertices[offset + 3]);
+                GL.glVertex3f(quadVertices[offset], quadVertices[offset + 1], 0);
+                offset += 4;
+            }
+        }
+        image.endUse();
+    }
+    
     /**
      * Load the system particle image as the extension permissions
      */
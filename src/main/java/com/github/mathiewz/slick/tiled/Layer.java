@@ -2,14 +2,21 @@ package com.github.mathiewz.slick.tiled;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Properties;
 import java.util.zip.GZIPInputStream;
 
+import org.lwjgl.opengl.GL11;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import com.github.mathiewz.slick.SlickException;
+import com.github.mathiewz.slick.opengl.InternalTextureLoader;
+import com.github.mathiewz.slick.opengl.Texture;
+import com.github.mathiewz.slick.opengl.TextureImpl;
+import com.github.mathiewz.slick.opengl.renderer.Renderer;
+import com.github.mathiewz.slick.opengl.renderer.SGL;
 import com.github.mathiewz.slick.util.Log;
 
 /**
@@ -18,6 +25,11 @@ import com.github.mathiewz.slick.util.Log;
  * @author kevin
  */
 public class Layer {
+    /** The renderer to use for all GL operations */
+    protected static SGL GL = Renderer.get();
+    /** The number of tiles along each side of a cached chunk */
+    public static final int CHUNK_SIZE = 32;
+    
     /** The code used to decode Base64 encoding */
     private static byte[] baseCodes = new byte[256];
     
@@ -60,6 +72,19 @@ public class Layer {
     /** the properties of this layer */
     public Properties props;
     
+    /** True if this layer is static and rendered from cached chunks */
+    private boolean cached;
+    /** The first of the display lists holding the chunks, or 0 if none have been allocated */
+    private int chunkLists;
+    /** The number of chunks across the layer */
+    private int chunksAcross;
+    /** The number of chunks down the layer */
+    private int chunksDown;
+    /** True for each chunk whose display list needs to be rebuilt */
+    private boolean[] chunkDirty;
+    /** The tile set textures kept on the card while the chunks refer to them */
+    private Texture[] pinnedTextures;
+    
     /**
      * Create a new layer based on the XML definition
      *
@@ -158,6 +183,10 @@ public class Layer {
      *            The tile value to set
      */
     public void setTileID(int x, int y, int tile) {
+        if (cached && chunkDirty != null) {
+            chunkDirty[y / CHUNK_SIZE * chunksAcross + x / CHUNK_SIZE] = true;
+        }
+        
         if (tile == 0) {
             data[x][y][0] = -1;
             data[x][y][1] = 0;
@@ -237,6 +266,164 @@ public class Layer {
         }
     }
     
+    /**
+     * Indicate if this layer is static, and should be rendered from cached chunks
+     * of CHUNK_SIZE by CHUNK_SIZE tiles. Each chunk is compiled into a display list
+     * the first time it's drawn and is drawn with a single call from then on. A
+     * chunk is only rebuilt when one of its tiles is changed through
+     * setTileID(), changes made directly to the tile data aren't picked up.
+     *
+     * @param cached
+     *            True if this layer should be rendered from cached chunks
+     */
+    public void setCached(boolean cached) {
+        if (this.cached == cached) {
+            return;
+        }
+        
+        this.cached = cached;
+        if (!cached && chunkLists != 0) {
+            GL.glDeleteLists(chunkLists, chunksAcross * chunksDown);
+            chunkLists = 0;
+            chunkDirty = null;
+            
+            for (Texture texture : pinnedTextures) {
+                InternalTextureLoader.get().unpin(texture);
+            }
+            pinnedTextures = null;
+        }
+    }
+    
+    /**
+     * Check if this layer is static and rendered from cached chunks
+     *
+     * @return True if this layer is rendered from cached chunks
+     */
+    public boolean isCached() {
+        return cached;
+    }
+    
+    /**
+     * Render a section of this layer from its cached chunks. Every chunk the
+     * section overlaps is drawn in full, so tiles just outside the section may be
+     * drawn too.
+     *
+     * @param x
+     *            The x location to render at
+     * @param y
+     *            The y location to render at
+     * @param sx
+     *            The x tile location to start rendering
+     * @param sy
+     *            The y tile location to start rendering
+     * @param width
+     *            The number of tiles across to render
+     * @param height
+     *            The number of tiles down to render
+     * @param mapTileWidth
+     *            the tile width specified in the map file
+     * @param mapTileHeight
+     *            the tile height specified in the map file
+     */
+    public void renderCached(int x, int y, int sx, int sy, int width, int height, int mapTileWidth, int mapTileHeight) {
+        int startX = Math.max(sx, 0);
+        int startY = Math.max(sy, 0);
+        int endX = Math.min(sx + width, this.width);
+        int endY = Math.min(sy + height, this.height);
+        if (startX >= endX || startY >= endY) {
+            return;
+        }
+        
+        if (chunkLists == 0) {
+            chunksAcross = (this.width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            chunksDown = (this.height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            chunkLists = GL.glGenLists(chunksAcross * chunksDown);
+            chunkDirty = new boolean[chunksAcross * chunksDown];
+            Arrays.fill(chunkDirty, true);
+            
+            // calling a chunk binds the tile sets directly, so they can't be evicted
+            pinnedTextures = new Texture[map.getTileSetCount()];
+            for (int i = 0; i < pinnedTextures.length; i++) {
+                TileSet set = map.getTileSet(i);
+                if (set.tiles != null) {
+                    pinnedTextures[i] = set.tiles.getTexture();
+                    InternalTextureLoader.get().pin(pinnedTextures[i]);
+                }
+            }
+        }
+        
+        for (int cy = startY / CHUNK_SIZE; cy <= (endY - 1) / CHUNK_SIZE; cy++) {
+            for (int cx = startX / CHUNK_SIZE; cx <= (endX - 1) / CHUNK_SIZE; cx++) {
+                int chunk = cy * chunksAcross + cx;
+                if (chunkDirty[chunk]) {
+                    buildChunk(cx, cy, chunkLists + chunk, mapTileWidth, mapTileHeight);
+                    chunkDirty[chunk] = false;
+                }
+                
+                float offsetX = x + (cx * CHUNK_SIZE - sx) * mapTileWidth;
+                float offsetY = y + (cy * CHUNK_SIZE - sy) * mapTileHeight;
+                GL.glTranslatef(offsetX, offsetY, 0);
+                GL.glCallList(chunkLists + chunk);
+                GL.glTranslatef(-offsetX, -offsetY, 0);
+            }
+        }
+        
+        // the display lists have changed the bound texture behind the cache's back
+        TextureImpl.unbind();
+    }
+    
+    /**
+     * Compile the tiles of a chunk into a display list, positioned relative to
+     * the top left corner of the chunk
+     *
+     * @param cx
+     *            The x index of the chunk
+     * @param cy
+     *            The y index of the chunk
+     * @param list
+     *            The display list to compile the chunk into
+     * @param mapTileWidth
+     *            the tile width specified in the map file
+     * @param mapTileHeight
+     *            the tile height specified in the map file
+     */
+    private void buildChunk(int cx, int cy, int list, int mapTileWidth, int mapTileHeight) {
+        int startX = cx * CHUNK_SIZE;
+        int startY = cy * CHUNK_SIZE;
+        int endX = Math.min(startX + CHUNK_SIZE, width);
+        int endY = Math.min(startY + CHUNK_SIZE, height);
+        
+        GL.glNewList(list, GL11.GL_COMPILE);
+        for (int tileset = 0; tileset < map.getTileSetCount(); tileset++) {
+            TileSet set = null;
+            
+            for (int ty = startY; ty < endY; ty++) {
+                for (int tx = startX; tx < endX; tx++) {
+                    if (data[tx][ty][0] != tileset) {
+                        continue;
+                    }
+                    if (set == null) {
+                        set = map.getTileSet(tileset);
+                        // make sure the bind is compiled into the list
+                        TextureImpl.unbind();
+                        set.tiles.startUse();
+                    }
+                    
+                    int sheetX = set.getTileX(data[tx][ty][1]);
+                    int sheetY = set.getTileY(data[tx][ty][1]);
+                    int tileOffsetY = set.tileHeight - mapTileHeight;
+                    
+                    set.tiles.renderInUse((tx - startX) * mapTileWidth, (ty - startY) * mapTileHeight - tileOffsetY, sheetX, sheetY);
+                }
+            }
+            
+            if (set != null) {
+                set.tiles.endUse();
+            }
+        }
+        GL.glEndList();
+    }
+    
     /**
      * Decode a Base64 string as encoded by TilED
      *
@@ -249,6 +249,34 @@ public class TiledMap {
         layers.get(layerIndex).setTileID(x, y, tileid);
     }
 
+    /**
+     * Indicate whether a layer is static. Static layers of orthogonal maps are
+     * cached in chunks of {@link Layer#CHUNK_SIZE} tiles square, each of which is
+     * drawn with a single call once built. A chunk is only rebuilt when one of
+     * its tiles is changed with {@link #setTileId(int, int, int, int)}. Every
+     * chunk overlapping the section being rendered is drawn in full, and cached
+     * layers aren't used when rendering line by line.
+     *
+     * @param layerIndex
+     *            The index of the layer to configure
+     * @param isStatic
+     *            True if the layer should be cached
+     */
+    public void setStaticLayer(int layerIndex, boolean isStatic) {
+        layers.get(layerIndex).setCached(isStatic);
+    }
+
+    /**
+     * Check if a layer is static and rendered from cached chunks
+     *
+     * @param layerIndex
+     *            The index of the layer to check
+     * @return True if the layer is cached
+     */
+    public boolean isStaticLayer(int layerIndex) {
+        return layers.get(layerIndex).isCached();
+    }
+
     /**
      * Get a property given to the map. Note that this method will not perform
      * well and should not be used as part of the default code path in the game
@@ -379,7 +407,9 @@ public class TiledMap {
      */
     public void render(int x, int y, int sx, int sy, int width, int height, int l, boolean lineByLine) {
         Layer layer = layers.get(l);
-        if (orientation == OrientationEnum.ORTHOGONAL) {
+        if (orientation == OrientationEnum.ORTHOGONAL && layer.isCached() && !lineByLine) {
+            layer.renderCached(x, y, sx, sy, width, height, tileWidth, tileHeight);
+        } else if (orientation == OrientationEnum.ORTHOGONAL) {
             for (int ty = 0; ty < height; ty++) {
                 layer.render(x, y, sx, sy, width, ty, lineByLine, tileWidth, tileHeight);
             }
@@ -409,7 +439,12 @@ public class TiledMap {
      *            {@link #renderedLine(int, int, int)}
      */
     public void render(int x, int y, int sx, int sy, int width, int height, boolean lineByLine) {
-        if (orientation == OrientationEnum.ORTHOGONAL) {
+        if (orientation == OrientationEnum.ORTHOGONAL && !lineByLine && hasStaticLayer()) {
+            // cached layers are drawn whole so render layer by layer
+            for (int l = 0; l < layers.size(); l++) {
+                render(x, y, sx, sy, width, height, l, false);
+            }
+        } else if (orientation == OrientationEnum.ORTHOGONAL) {
             for (int ty = 0; ty < height; ty++) {
                 for (Layer layer : layers) {
                     layer.render(x, y, sx, sy, width, ty, lineByLine, tileWidth, tileHeight);
@@ -420,6 +455,20 @@ public class TiledMap {
         }
     }
 
+    /**
+     * Check if any of the layers is static
+     *
+     * @return True if at least one layer is rendered from cached chunks
+     */
+    private boolean hasStaticLayer() {
+        for (Layer layer : layers) {
+            if (layer.isCached()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Render of isometric map renders.
      *